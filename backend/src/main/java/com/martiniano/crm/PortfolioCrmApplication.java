@@ -3,9 +3,11 @@ package com.martiniano.crm;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaRepositories
+@EnableScheduling
 public class PortfolioCrmApplication {
     public static void main(String[] args) {
         SpringApplication.run(PortfolioCrmApplication.class, args);
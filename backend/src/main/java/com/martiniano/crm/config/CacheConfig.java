@@ -0,0 +1,16 @@
+package com.martiniano.crm.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables Spring's cache abstraction. The Caffeine cache manager, cache names
+ * and spec (size bound, TTL, stats recording) come from {@code spring.cache.*};
+ * Boot registers the resulting caches with the actuator {@code metrics} endpoint.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String DASHBOARD_KPIS = "dashboardKpis";
+}
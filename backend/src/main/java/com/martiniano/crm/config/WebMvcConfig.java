@@ -0,0 +1,21 @@
+package com.martiniano.crm.config;
+
+import com.martiniano.crm.controller.ExportResponses;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ExportResponses exportResponses;
+
+    public WebMvcConfig(ExportResponses exportResponses) {
+        this.exportResponses = exportResponses;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(exportResponses.timeoutInterceptor());
+    }
+}
@@ -1,15 +1,27 @@
 package com.martiniano.crm.controller;
 
 import com.martiniano.crm.dto.ActivityRequest;
+import com.martiniano.crm.dto.ActivitySummary;
+import com.martiniano.crm.dto.CursorPage;
+import com.martiniano.crm.dto.StageTransitionCount;
 import com.martiniano.crm.entity.Activity;
+import com.martiniano.crm.entity.ActivityDailyRollup;
+import com.martiniano.crm.entity.ActivityEntityType;
 import com.martiniano.crm.service.ActivityService;
+import com.martiniano.crm.service.LiveUpdateHub;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/activities")
@@ -17,9 +29,11 @@ import org.springframework.web.bind.annotation.*;
 public class ActivityController {
 
     private final ActivityService activityService;
+    private final LiveUpdateHub liveUpdateHub;
 
-    public ActivityController(ActivityService activityService) {
+    public ActivityController(ActivityService activityService, LiveUpdateHub liveUpdateHub) {
         this.activityService = activityService;
+        this.liveUpdateHub = liveUpdateHub;
     }
 
     @PostMapping
@@ -28,12 +42,48 @@ public class ActivityController {
         return ResponseEntity.status(HttpStatus.CREATED).body(activity);
     }
 
+    /** Lead stage changes over the last {@code days} days, per stage moved into. */
+    @GetMapping("/stage-transitions")
+    public ResponseEntity<List<StageTransitionCount>> getStageTransitions(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(activityService.getStageTransitions(LocalDateTime.now().minusDays(days)));
+    }
+
+    /** Full activity, including description and payload, for a timeline entry. */
+    @GetMapping("/{id}")
+    public ResponseEntity<Activity> getActivity(@PathVariable Long id) {
+        return ResponseEntity.ok(activityService.getActivity(id));
+    }
+
     @GetMapping("/{entityType}/{entityId}")
-    public ResponseEntity<Page<Activity>> getActivitiesByEntity(
-            @PathVariable String entityType,
+    public ResponseEntity<Page<ActivitySummary>> getActivitiesByEntity(
+            @PathVariable ActivityEntityType entityType,
             @PathVariable Long entityId,
             Pageable pageable) {
-        Page<Activity> activities = activityService.getActivityTimeline(entityType, entityId, pageable);
+        Page<ActivitySummary> activities = activityService.getActivityTimeline(entityType, entityId, pageable);
         return ResponseEntity.ok(activities);
     }
+
+    @GetMapping("/{entityType}/{entityId}/scroll")
+    public ResponseEntity<CursorPage<ActivitySummary>> scrollActivitiesByEntity(
+            @PathVariable ActivityEntityType entityType,
+            @PathVariable Long entityId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(activityService.scrollActivityTimeline(entityType, entityId, cursor, size));
+    }
+
+    /** Daily activity counts for the entity's history beyond the retention window. */
+    @GetMapping("/{entityType}/{entityId}/daily")
+    public ResponseEntity<Slice<ActivityDailyRollup>> getDailySummaryByEntity(
+            @PathVariable ActivityEntityType entityType,
+            @PathVariable Long entityId,
+            Pageable pageable) {
+        return ResponseEntity.ok(activityService.getDailySummary(entityType, entityId, pageable));
+    }
+
+    /** Server-Sent Events stream of activities committed for the entity from now on. */
+    @GetMapping(value = "/{entityType}/{entityId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamActivitiesByEntity(@PathVariable ActivityEntityType entityType, @PathVariable Long entityId) {
+        return liveUpdateHub.subscribeActivities(entityType, entityId);
+    }
 }
@@ -2,7 +2,9 @@ package com.martiniano.crm.controller;
 
 import com.martiniano.crm.dto.LoginRequest;
 import com.martiniano.crm.dto.LoginResponse;
+import com.martiniano.crm.dto.RefreshTokenRequest;
 import com.martiniano.crm.service.AuthService;
+import com.martiniano.crm.service.RefreshTokenService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -23,9 +25,11 @@ public class AuthController {
 
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
     private final AuthService authService;
+    private final RefreshTokenService refreshTokenService;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, RefreshTokenService refreshTokenService) {
         this.authService = authService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @PostMapping("/login")
@@ -54,6 +58,21 @@ public class AuthController {
         }
     }
 
+    /**
+     * Trades a refresh token for a new access token and the next refresh token.
+     * The presented token stops working; presenting it again revokes the session.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(refreshTokenService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser() {
         // This endpoint can be used to verify if the token is still valid
@@ -1,8 +1,11 @@
 package com.martiniano.crm.controller;
 
 import com.martiniano.crm.dto.ClientRequest;
+import com.martiniano.crm.dto.ClientSummary;
+import com.martiniano.crm.dto.CursorPage;
 import com.martiniano.crm.entity.Client;
 import com.martiniano.crm.service.ClientService;
+import com.martiniano.crm.service.ExportService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -10,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/clients")
@@ -17,9 +21,13 @@ import org.springframework.web.bind.annotation.*;
 public class ClientController {
 
     private final ClientService clientService;
+    private final SparseFieldsets sparseFieldsets;
+    private final ExportResponses exportResponses;
 
-    public ClientController(ClientService clientService) {
+    public ClientController(ClientService clientService, SparseFieldsets sparseFieldsets, ExportResponses exportResponses) {
         this.clientService = clientService;
+        this.sparseFieldsets = sparseFieldsets;
+        this.exportResponses = exportResponses;
     }
 
     @PostMapping
@@ -29,12 +37,13 @@ public class ClientController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<Client>> getAllClients(
+    public ResponseEntity<Page<?>> getAllClients(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
+            @RequestParam(required = false) String fields,
             Pageable pageable) {
         
-        Page<Client> clients;
+        Page<ClientSummary> clients;
         if (search != null && !search.isBlank()) {
             clients = clientService.searchClients(search, pageable);
         } else if (status != null && !status.isBlank()) {
@@ -43,7 +52,22 @@ public class ClientController {
             clients = clientService.getAllClients(pageable);
         }
         
-        return ResponseEntity.ok(clients);
+        return ResponseEntity.ok(sparseFieldsets.apply(clients, fields));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<?>> scrollClients(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(sparseFieldsets.apply(clientService.scrollClients(cursor, size), fields));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportClients(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return exportResponses.stream(ExportService.Dataset.CLIENTS, format, gzip);
     }
 
     @GetMapping("/{id}")
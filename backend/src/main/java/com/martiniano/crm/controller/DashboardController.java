@@ -1,9 +1,12 @@
 package com.martiniano.crm.controller;
 
 import com.martiniano.crm.service.DashboardService;
+import com.martiniano.crm.service.LiveUpdateHub;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -13,9 +16,11 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final LiveUpdateHub liveUpdateHub;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, LiveUpdateHub liveUpdateHub) {
         this.dashboardService = dashboardService;
+        this.liveUpdateHub = liveUpdateHub;
     }
 
     @GetMapping("/kpis")
@@ -23,4 +28,10 @@ public class DashboardController {
         Map<String, Object> kpis = dashboardService.getDashboardKPIs();
         return ResponseEntity.ok(kpis);
     }
+
+    /** Server-Sent Events stream of the KPIs: the current values, then again after every change. */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboardKPIs() {
+        return liveUpdateHub.subscribeDashboard();
+    }
 }
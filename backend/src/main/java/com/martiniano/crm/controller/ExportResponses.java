@@ -0,0 +1,84 @@
+package com.martiniano.crm.controller;
+
+import com.martiniano.crm.service.ExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds the streaming response of the {@code /export} endpoints. The body is written
+ * on an async request thread while rows are read, so nothing is buffered beyond the
+ * JDBC fetch size; {@code gzip=true} compresses on the fly with
+ * {@code Content-Encoding: gzip}. A full table can take far longer than an ordinary
+ * async request, so export responses get their own {@code request-timeout}.
+ */
+@Component
+public class ExportResponses {
+
+    private static final int GZIP_BUFFER = 64 * 1024;
+
+    private static final String TIMEOUT_ATTRIBUTE = ExportResponses.class.getName() + ".timeout";
+
+    private final ExportService exportService;
+    private final long requestTimeoutMs;
+
+    public ExportResponses(ExportService exportService,
+                           @Value("${app.export.request-timeout:1800000}") long requestTimeoutMs) {
+        this.exportService = exportService;
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    public ResponseEntity<StreamingResponseBody> stream(ExportService.Dataset dataset, String format, boolean gzip) {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER);
+                exportService.export(dataset, exportFormat, compressed);
+                compressed.finish();
+            } else {
+                exportService.export(dataset, exportFormat, out);
+            }
+        };
+
+        String filename = dataset.getTable() + "-" + LocalDate.now() + "." + exportFormat.getExtension();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(exportFormat.getMediaType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(TIMEOUT_ATTRIBUTE, requestTimeoutMs, RequestAttributes.SCOPE_REQUEST);
+        return response.body(body);
+    }
+
+    /**
+     * Applies the export timeout to requests marked by {@link #stream}, just before
+     * their body starts streaming; other async requests keep the default timeout.
+     */
+    public CallableProcessingInterceptor timeoutInterceptor() {
+        return new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                if (request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long timeoutMs
+                        && request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(timeoutMs);
+                }
+            }
+        };
+    }
+}
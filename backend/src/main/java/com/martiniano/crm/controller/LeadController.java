@@ -1,18 +1,31 @@
 package com.martiniano.crm.controller;
 
+import com.martiniano.crm.dto.CursorPage;
 import com.martiniano.crm.dto.LeadCreateRequest;
-import com.martiniano.crm.dto.LeadUpdateRequest;
+import com.martiniano.crm.dto.LeadImportResult;
 import com.martiniano.crm.dto.LeadResponse;
+import com.martiniano.crm.dto.LeadSummary;
+import com.martiniano.crm.dto.LeadUpdateRequest;
 import com.martiniano.crm.entity.Lead;
+import com.martiniano.crm.service.ExportService;
+import com.martiniano.crm.service.LeadImportService;
 import com.martiniano.crm.service.LeadService;
+import com.martiniano.crm.service.PublicLeadIntake;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,30 +33,67 @@ import java.util.Map;
 @RequestMapping("/api/v1/leads")
 public class LeadController {
 
+    private static final String TEXT_CSV = "text/csv";
+
     private final LeadService leadService;
+    private final LeadImportService leadImportService;
+    private final SparseFieldsets sparseFieldsets;
+    private final ExportResponses exportResponses;
+    private final PublicLeadIntake publicLeadIntake;
 
-    public LeadController(LeadService leadService) {
+    public LeadController(LeadService leadService,
+                          LeadImportService leadImportService,
+                          SparseFieldsets sparseFieldsets,
+                          ExportResponses exportResponses,
+                          PublicLeadIntake publicLeadIntake) {
         this.leadService = leadService;
+        this.leadImportService = leadImportService;
+        this.sparseFieldsets = sparseFieldsets;
+        this.exportResponses = exportResponses;
+        this.publicLeadIntake = publicLeadIntake;
     }
 
+    /**
+     * Contact form submission. Rate limited per client IP and email; a repeat of a
+     * recent identical submission answers 200 with the original lead id.
+     */
     @PostMapping("/public")
-    public ResponseEntity<Map<String, Object>> createLeadPublic(@Valid @RequestBody LeadCreateRequest request) {
-        Lead lead = leadService.createLead(request);
+    public ResponseEntity<Map<String, Object>> createLeadPublic(@Valid @RequestBody LeadCreateRequest request,
+                                                                HttpServletRequest httpRequest) {
+        PublicLeadIntake.Submission submission = publicLeadIntake.submit(request, httpRequest.getRemoteAddr());
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "Lead created successfully");
-        response.put("leadId", lead.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        response.put("leadId", submission.leadId());
+        return ResponseEntity.status(submission.duplicate() ? HttpStatus.OK : HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Bulk import from a CSV (header row required) or NDJSON body. The body is
+     * streamed straight from the request, never buffered whole.
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LeadImportResult> importLeads(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        LeadImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? LeadImportService.Format.NDJSON
+                : LeadImportService.Format.CSV;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        LeadImportResult result = leadImportService.importLeads(
+                new InputStreamReader(request.getInputStream(), charset), format);
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<Lead>> getAllLeads(
+    public ResponseEntity<Page<?>> getAllLeads(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String stage,
+            @RequestParam(required = false) String fields,
             Pageable pageable) {
         
-        Page<Lead> leads;
+        Page<LeadSummary> leads;
         if (search != null && !search.isBlank()) {
             leads = leadService.searchLeads(search, pageable);
         } else if (stage != null && !stage.isBlank()) {
@@ -52,7 +102,24 @@ public class LeadController {
             leads = leadService.getAllLeads(pageable);
         }
         
-        return ResponseEntity.ok(leads);
+        return ResponseEntity.ok(sparseFieldsets.apply(leads, fields));
+    }
+
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<?>> scrollLeads(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(sparseFieldsets.apply(leadService.scrollLeads(cursor, size), fields));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportLeads(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return exportResponses.stream(ExportService.Dataset.LEADS, format, gzip);
     }
 
     @GetMapping("/{id}")
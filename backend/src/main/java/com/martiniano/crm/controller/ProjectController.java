@@ -1,7 +1,10 @@
 package com.martiniano.crm.controller;
 
+import com.martiniano.crm.dto.CursorPage;
 import com.martiniano.crm.dto.ProjectRequest;
+import com.martiniano.crm.dto.ProjectSummary;
 import com.martiniano.crm.entity.Project;
+import com.martiniano.crm.service.ExportService;
 import com.martiniano.crm.service.ProjectService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -10,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,9 +23,13 @@ import java.util.List;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final SparseFieldsets sparseFieldsets;
+    private final ExportResponses exportResponses;
 
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService, SparseFieldsets sparseFieldsets, ExportResponses exportResponses) {
         this.projectService = projectService;
+        this.sparseFieldsets = sparseFieldsets;
+        this.exportResponses = exportResponses;
     }
 
     @PostMapping
@@ -31,18 +39,34 @@ public class ProjectController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<Project>> getAllProjects(
+    public ResponseEntity<Page<?>> getAllProjects(
             @RequestParam(required = false) String status,
+            @RequestParam(required = false) String fields,
             Pageable pageable) {
         
-        Page<Project> projects;
+        Page<ProjectSummary> projects;
         if (status != null && !status.isBlank()) {
             projects = projectService.getProjectsByStatus(status, pageable);
         } else {
             projects = projectService.getAllProjects(pageable);
         }
         
-        return ResponseEntity.ok(projects);
+        return ResponseEntity.ok(sparseFieldsets.apply(projects, fields));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<?>> scrollProjects(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(sparseFieldsets.apply(projectService.scrollProjects(cursor, size), fields));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProjects(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return exportResponses.stream(ExportService.Dataset.PROJECTS, format, gzip);
     }
 
     @GetMapping("/{id}")
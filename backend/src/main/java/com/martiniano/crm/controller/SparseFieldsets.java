@@ -0,0 +1,64 @@
+package com.martiniano.crm.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martiniano.crm.dto.CursorPage;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the {@code ?fields=a,b,c} sparse fieldset option of the list endpoints.
+ * Items are reduced to the requested properties (plus {@code id}); unknown names
+ * are ignored and an absent or blank parameter returns the items unchanged.
+ */
+@Component
+public class SparseFieldsets {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public SparseFieldsets(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Page<?> apply(Page<?> page, String fields) {
+        Set<String> wanted = parse(fields);
+        return wanted.isEmpty() ? page : page.map(item -> select(item, wanted));
+    }
+
+    public CursorPage<?> apply(CursorPage<?> page, String fields) {
+        Set<String> wanted = parse(fields);
+        if (wanted.isEmpty()) {
+            return page;
+        }
+        List<Map<String, Object>> items = page.getItems().stream().map(item -> select(item, wanted)).toList();
+        return new CursorPage<>(items, page.getNextCursor(), page.isHasNext());
+    }
+
+    private Map<String, Object> select(Object item, Set<String> wanted) {
+        Map<String, Object> properties = objectMapper.convertValue(item, MAP_TYPE);
+        properties.keySet().retainAll(wanted);
+        return properties;
+    }
+
+    private static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Set.of();
+        }
+        Set<String> wanted = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        wanted.add("id");
+        return wanted;
+    }
+}
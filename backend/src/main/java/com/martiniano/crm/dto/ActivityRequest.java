@@ -1,14 +1,25 @@
 package com.martiniano.crm.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.martiniano.crm.entity.ActivityEntityType;
+import com.martiniano.crm.entity.ActivityPayload;
+import jakarta.validation.constraints.AssertTrue;
 import lombok.Data;
 import java.util.Map;
 import java.time.LocalDateTime;
 
 @Data
 public class ActivityRequest {
-    private String entityType;
+    private ActivityEntityType entityType;
     private Long entityId;
     private String activityType;
     private String description;
+    /** Stored as an {@link ActivityPayload.Custom}, whatever fields it holds. */
     private Map<String, Object> payload;
+
+    @JsonIgnore
+    @AssertTrue(message = "payload must not contain the reserved \"" + ActivityPayload.TYPE_PROPERTY + "\" field")
+    public boolean isPayloadUntagged() {
+        return payload == null || !payload.containsKey(ActivityPayload.TYPE_PROPERTY);
+    }
 }
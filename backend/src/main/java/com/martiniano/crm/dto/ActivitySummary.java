@@ -0,0 +1,19 @@
+package com.martiniano.crm.dto;
+
+import com.martiniano.crm.entity.ActivityEntityType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One timeline entry. Every column is a key or INCLUDE column of the V14 timeline
+ * index, so PostgreSQL answers timeline pages with an index-only scan; the TEXT
+ * {@code description} and JSONB {@code payload} are loaded per item by id.
+ */
+public interface ActivitySummary {
+    Long getId();
+    ActivityEntityType getEntityType();
+    Long getEntityId();
+    String getActivityType();
+    Long getCreatedBy();
+    LocalDateTime getCreatedAt();
+}
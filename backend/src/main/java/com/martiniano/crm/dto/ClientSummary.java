@@ -0,0 +1,16 @@
+package com.martiniano.crm.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns shown in the clients table; {@code address} and {@code notes} stay on the detail view.
+ */
+public interface ClientSummary {
+    Long getId();
+    String getName();
+    String getCompany();
+    String getEmail();
+    String getPhone();
+    String getStatus();
+    LocalDateTime getCreatedAt();
+}
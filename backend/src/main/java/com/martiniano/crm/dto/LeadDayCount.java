@@ -0,0 +1,11 @@
+package com.martiniano.crm.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Projection for lead creation counts bucketed by calendar day.
+ */
+public interface LeadDayCount {
+    LocalDate getCreatedDate();
+    Long getTotal();
+}
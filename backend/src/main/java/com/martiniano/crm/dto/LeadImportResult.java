@@ -0,0 +1,28 @@
+package com.martiniano.crm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk lead import. {@code errors} lists rejected rows by their
+ * 1-based position in the input (data rows for CSV, lines for NDJSON) and is
+ * capped; {@code failed} always counts every rejected row.
+ */
+@Data
+public class LeadImportResult {
+
+    private long imported;
+    private long failed;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private List<String> messages;
+    }
+}
@@ -0,0 +1,11 @@
+package com.martiniano.crm.dto;
+
+/**
+ * Projection for grouped lead counts: one row per stage with the total
+ * and how many of those leads were created inside the requested window.
+ */
+public interface LeadStageCount {
+    String getStage();
+    Long getTotal();
+    Long getRecent();
+}
@@ -0,0 +1,20 @@
+package com.martiniano.crm.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns shown in the leads table. Selected directly by the list queries, so the
+ * TEXT {@code message} column and the {@code assignedTo} association are never loaded.
+ */
+public interface LeadSummary {
+    Long getId();
+    String getName();
+    String getEmail();
+    String getPhone();
+    String getCompany();
+    String getStage();
+    String getPriority();
+    String getSource();
+    Long getAssignedToId();
+    LocalDateTime getCreatedAt();
+}
@@ -10,4 +10,6 @@ public class LoginResponse {
     private String username;
     private String email;
     private String role;
+    /** Single-use token for {@code POST /api/v1/auth/refresh}. */
+    private String refreshToken;
 }
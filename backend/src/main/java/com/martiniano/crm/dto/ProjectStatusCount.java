@@ -0,0 +1,9 @@
+package com.martiniano.crm.dto;
+
+/**
+ * Projection for grouped project counts: one row per status.
+ */
+public interface ProjectStatusCount {
+    String getStatus();
+    Long getTotal();
+}
@@ -0,0 +1,18 @@
+package com.martiniano.crm.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Columns shown in the projects table; the TEXT {@code description} and {@code stack}
+ * columns stay on the detail view.
+ */
+public interface ProjectSummary {
+    Long getId();
+    Long getClientId();
+    String getName();
+    String getStatus();
+    LocalDate getStartDate();
+    LocalDate getTargetDate();
+    LocalDateTime getCreatedAt();
+}
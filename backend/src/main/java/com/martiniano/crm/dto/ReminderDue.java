@@ -0,0 +1,11 @@
+package com.martiniano.crm.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection for loading the reminder schedule: just the id and due time.
+ */
+public interface ReminderDue {
+    Long getId();
+    LocalDateTime getDueAt();
+}
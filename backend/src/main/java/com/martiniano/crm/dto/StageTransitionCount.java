@@ -0,0 +1,9 @@
+package com.martiniano.crm.dto;
+
+/**
+ * Projection for lead stage changes grouped by the stage moved into.
+ */
+public interface StageTransitionCount {
+    String getStage();
+    Long getTotal();
+}
@@ -5,18 +5,18 @@ import lombok.Data;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
-import java.util.Map;
 
 @Data
 @Entity
 @Table(name = "activities")
 public class Activity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activities_id_seq")
+    @SequenceGenerator(name = "activities_id_seq", sequenceName = "activities_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, length = 50, name = "entity_type")
-    private String entityType;
+    @Column(nullable = false, name = "entity_type")
+    private ActivityEntityType entityType;
 
     @Column(nullable = false, name = "entity_id")
     private Long entityId;
@@ -29,7 +29,7 @@ public class Activity {
 
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
-    private Map<String, Object> payload;
+    private ActivityPayload payload;
 
     @Column(name = "created_by")
     private Long createdBy;
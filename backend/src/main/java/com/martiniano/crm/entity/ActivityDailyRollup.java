@@ -0,0 +1,42 @@
+package com.martiniano.crm.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily activity count per entity and activity type, for history older than the
+ * activities retention window. Written only by ActivityPartitionMaintenance's SQL
+ * upsert, hence read-only here and without a generated id.
+ */
+@Data
+@Entity
+@Immutable
+@Table(name = "activity_daily_rollups")
+public class ActivityDailyRollup {
+    @Id
+    private Long id;
+
+    @Column(nullable = false, name = "entity_type")
+    private ActivityEntityType entityType;
+
+    @Column(nullable = false, name = "entity_id")
+    private Long entityId;
+
+    @Column(nullable = false, name = "activity_date")
+    private LocalDate activityDate;
+
+    @Column(nullable = false, length = 100, name = "activity_type")
+    private String activityType;
+
+    @Column(nullable = false, name = "activity_count")
+    private Long activityCount;
+
+    @Column(nullable = false, name = "first_at")
+    private LocalDateTime firstAt;
+
+    @Column(nullable = false, name = "last_at")
+    private LocalDateTime lastAt;
+}
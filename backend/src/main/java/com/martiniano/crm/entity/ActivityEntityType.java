@@ -0,0 +1,31 @@
+package com.martiniano.crm.entity;
+
+/**
+ * Kind of record an activity belongs to. Stored in {@code activities.entity_type}
+ * as its SMALLINT {@link #getCode() code}, which keeps the timeline index narrow;
+ * codes are persisted, so never renumber or reuse one.
+ */
+public enum ActivityEntityType {
+    LEAD(1),
+    CLIENT(2),
+    PROJECT(3);
+
+    private final short code;
+
+    ActivityEntityType(int code) {
+        this.code = (short) code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static ActivityEntityType fromCode(short code) {
+        for (ActivityEntityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown activity entity type code " + code);
+    }
+}
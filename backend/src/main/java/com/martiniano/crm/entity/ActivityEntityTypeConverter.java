@@ -0,0 +1,18 @@
+package com.martiniano.crm.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class ActivityEntityTypeConverter implements AttributeConverter<ActivityEntityType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(ActivityEntityType type) {
+        return type == null ? null : type.getCode();
+    }
+
+    @Override
+    public ActivityEntityType convertToEntityAttribute(Short code) {
+        return code == null ? null : ActivityEntityType.fromCode(code);
+    }
+}
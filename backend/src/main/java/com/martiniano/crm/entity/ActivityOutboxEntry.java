@@ -0,0 +1,43 @@
+package com.martiniano.crm.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.time.LocalDateTime;
+
+/**
+ * An activity waiting in the {@code activity_outbox} table for the async batch
+ * writer to move it into {@code activities}.
+ */
+@Data
+@Entity
+@Table(name = "activity_outbox")
+public class ActivityOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_outbox_id_seq")
+    @SequenceGenerator(name = "activity_outbox_id_seq", sequenceName = "activity_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, name = "entity_type")
+    private ActivityEntityType entityType;
+
+    @Column(nullable = false, name = "entity_id")
+    private Long entityId;
+
+    @Column(nullable = false, length = 100, name = "activity_type")
+    private String activityType;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private ActivityPayload payload;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(nullable = false, updatable = false, name = "created_at")
+    private LocalDateTime createdAt;
+}
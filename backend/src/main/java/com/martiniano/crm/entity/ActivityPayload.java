@@ -0,0 +1,78 @@
+package com.martiniano.crm.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Structured detail of an activity, stored in the {@code activities.payload} JSONB
+ * column. The typed records carry a short variant tag in {@value #TYPE_PROPERTY}, so
+ * the variant is never guessed from field names, and skip fields they do not declare
+ * (written by a newer version, or edited by hand) rather than fail the whole read.
+ * {@link Custom} is written without a tag, and any untagged document (API-supplied
+ * maps) reads back as {@code Custom} with all of its fields. Null fields are omitted
+ * from the stored document.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = ActivityPayload.TYPE_PROPERTY,
+        defaultImpl = ActivityPayload.Custom.class)
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = ActivityPayload.Created.class, name = "c"),
+        @JsonSubTypes.Type(value = ActivityPayload.StageChanged.class, name = "sc")
+})
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public sealed interface ActivityPayload {
+
+    /** Document field naming the variant; reserved, so custom fields may not use it. */
+    String TYPE_PROPERTY = "_t";
+
+    /** Lead creation; {@code source} is the channel the lead came in through. */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Created(String source) implements ActivityPayload {
+    }
+
+    /** Lead pipeline move. {@code payload->>'newStage'} is indexed by V15. */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record StageChanged(String oldStage, String newStage) implements ActivityPayload {
+    }
+
+    /** Free-form fields, as posted to the activities API. */
+    @JsonSerialize(using = Custom.FieldsSerializer.class)
+    record Custom(Map<String, Object> fields) implements ActivityPayload {
+
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public Custom {
+            if (fields.containsKey(TYPE_PROPERTY)) {
+                throw new IllegalArgumentException("Custom payload must not contain " + TYPE_PROPERTY);
+            }
+        }
+
+        /** Writes the bare map: an untagged document is what reads back as {@code Custom}. */
+        static class FieldsSerializer extends StdSerializer<Custom> {
+
+            FieldsSerializer() {
+                super(Custom.class);
+            }
+
+            @Override
+            public void serialize(Custom value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                provider.defaultSerializeValue(value.fields(), gen);
+            }
+
+            @Override
+            public void serializeWithType(Custom value, JsonGenerator gen, SerializerProvider provider,
+                                          TypeSerializer typeSer) throws IOException {
+                serialize(value, gen, provider);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.martiniano.crm.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "kpi_counters")
+@IdClass(KpiCounter.Key.class)
+public class KpiCounter {
+    @Id
+    @Column(nullable = false, length = 50)
+    private String metric;
+
+    @Id
+    @Column(nullable = false, length = 50)
+    private String dimension;
+
+    @Column(name = "counter_value", nullable = false)
+    private Long value = 0L;
+
+    @Column(nullable = false, name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String metric;
+        private String dimension;
+    }
+}
@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 @Table(name = "leads")
 public class Lead {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "leads_id_seq")
+    @SequenceGenerator(name = "leads_id_seq", sequenceName = "leads_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 @Table(name = "milestones")
 public class Milestone {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "milestones_id_seq")
+    @SequenceGenerator(name = "milestones_id_seq", sequenceName = "milestones_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, name = "project_id")
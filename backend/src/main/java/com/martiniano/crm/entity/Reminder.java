@@ -7,9 +7,11 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "reminders")
+@EntityListeners(ReminderListener.class)
 public class Reminder {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reminders_id_seq")
+    @SequenceGenerator(name = "reminders_id_seq", sequenceName = "reminders_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 50, name = "entity_type")
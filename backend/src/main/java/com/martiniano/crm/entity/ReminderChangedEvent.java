@@ -0,0 +1,10 @@
+package com.martiniano.crm.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link ReminderListener} when a reminder is created, updated or
+ * removed. {@code status} is {@code null} for removed reminders.
+ */
+public record ReminderChangedEvent(Long reminderId, LocalDateTime dueAt, String status) {
+}
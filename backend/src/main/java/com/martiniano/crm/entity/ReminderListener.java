@@ -0,0 +1,32 @@
+package com.martiniano.crm.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a {@link ReminderChangedEvent} for every written or removed reminder,
+ * so the in-memory reminder schedule can follow the table once the transaction commits.
+ */
+@Component
+public class ReminderListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReminderListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void reminderSaved(Reminder reminder) {
+        eventPublisher.publishEvent(new ReminderChangedEvent(reminder.getId(), reminder.getDueAt(), reminder.getStatus()));
+    }
+
+    @PostRemove
+    void reminderRemoved(Reminder reminder) {
+        eventPublisher.publishEvent(new ReminderChangedEvent(reminder.getId(), reminder.getDueAt(), null));
+    }
+}
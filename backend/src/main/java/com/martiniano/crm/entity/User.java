@@ -1,15 +1,19 @@
 package com.martiniano.crm.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Data
 @Entity
+@EntityListeners(UserVersionListener.class)
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 100)
@@ -18,6 +22,7 @@ public class User {
     @Column(unique = true, nullable = false)
     private String email;
 
+    @JsonIgnore
     @Column(nullable = false, name = "password_hash")
     private String passwordHash;
 
@@ -30,12 +35,30 @@ public class User {
     @Column(nullable = false)
     private Boolean enabled = true;
 
+    /** Embedded in issued JWTs; bumped by role or enabled changes to revoke them. */
+    @Column(nullable = false, name = "token_version")
+    private Integer tokenVersion = 0;
+
     @Column(nullable = false, updatable = false, name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column(nullable = false, name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    public void setRole(String role) {
+        if (id != null && !Objects.equals(this.role, role)) {
+            tokenVersion++;
+        }
+        this.role = role;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        if (id != null && !Objects.equals(this.enabled, enabled)) {
+            tokenVersion++;
+        }
+        this.enabled = enabled;
+    }
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
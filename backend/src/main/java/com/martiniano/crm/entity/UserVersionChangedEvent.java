@@ -0,0 +1,7 @@
+package com.martiniano.crm.entity;
+
+/**
+ * Published by {@link UserVersionListener} when a user row changes or is removed.
+ */
+public record UserVersionChangedEvent(Long userId) {
+}
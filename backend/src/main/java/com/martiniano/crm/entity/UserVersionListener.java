@@ -0,0 +1,26 @@
+package com.martiniano.crm.entity;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a {@link UserVersionChangedEvent} for every updated or removed user,
+ * so caches of token versions can drop the entry once the transaction commits.
+ */
+@Component
+public class UserVersionListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserVersionListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostUpdate
+    @PostRemove
+    void userChanged(User user) {
+        eventPublisher.publishEvent(new UserVersionChangedEvent(user.getId()));
+    }
+}
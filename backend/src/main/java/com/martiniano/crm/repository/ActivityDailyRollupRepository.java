@@ -0,0 +1,14 @@
+package com.martiniano.crm.repository;
+
+import com.martiniano.crm.entity.ActivityDailyRollup;
+import com.martiniano.crm.entity.ActivityEntityType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ActivityDailyRollupRepository extends JpaRepository<ActivityDailyRollup, Long> {
+    Slice<ActivityDailyRollup> findByEntityTypeAndEntityIdOrderByActivityDateDescActivityTypeAsc(
+            ActivityEntityType entityType, Long entityId, Pageable pageable);
+}
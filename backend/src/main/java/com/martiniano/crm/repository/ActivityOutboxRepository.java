@@ -0,0 +1,23 @@
+package com.martiniano.crm.repository;
+
+import com.martiniano.crm.entity.ActivityOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ActivityOutboxRepository extends JpaRepository<ActivityOutboxEntry, Long> {
+
+    /**
+     * Locks up to {@code limit} of the oldest queued activities with
+     * {@code FOR UPDATE SKIP LOCKED}, so writers on several instances drain
+     * disjoint batches. Native because Hibernate's H2 dialect drops the SKIP LOCKED
+     * clause.
+     */
+    @Query(value = "SELECT * FROM activity_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ActivityOutboxEntry> claimBatch(@Param("limit") int limit);
+}
@@ -1,12 +1,58 @@
 package com.martiniano.crm.repository;
 
+import com.martiniano.crm.dto.ActivitySummary;
+import com.martiniano.crm.dto.StageTransitionCount;
 import com.martiniano.crm.entity.Activity;
+import com.martiniano.crm.entity.ActivityEntityType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface ActivityRepository extends JpaRepository<Activity, Long> {
-    Page<Activity> findByEntityTypeAndEntityIdOrderByCreatedAtDesc(String entityType, Long entityId, Pageable pageable);
+
+    /*
+     * Timeline queries select only columns held by idx_activities_entity_created_at_id,
+     * keys (entity_type, entity_id, created_at DESC, id DESC) plus INCLUDE
+     * (activity_type, created_by), and order by its keys: no sort and no heap access.
+     */
+    String SUMMARY = "SELECT a.id AS id, a.entityType AS entityType, a.entityId AS entityId, " +
+                     "a.activityType AS activityType, a.createdBy AS createdBy, a.createdAt AS createdAt " +
+                     "FROM Activity a WHERE a.entityType = :entityType AND a.entityId = :entityId ";
+
+    @Query(value = SUMMARY + "ORDER BY a.createdAt DESC, a.id DESC",
+           countQuery = "SELECT COUNT(a) FROM Activity a WHERE a.entityType = :entityType AND a.entityId = :entityId")
+    Page<ActivitySummary> findTimeline(@Param("entityType") ActivityEntityType entityType,
+                                       @Param("entityId") Long entityId, Pageable pageable);
+
+    @Query(SUMMARY + "ORDER BY a.createdAt DESC, a.id DESC")
+    Slice<ActivitySummary> findFirstSlice(@Param("entityType") ActivityEntityType entityType,
+                                          @Param("entityId") Long entityId, Pageable pageable);
+
+    // The redundant createdAt <= bound is what PostgreSQL turns into an index condition;
+    // the OR alone is only a filter, read over every newer entry of the entity
+    @Query(SUMMARY + "AND a.createdAt <= :createdAt " +
+           "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    Slice<ActivitySummary> findSliceBefore(@Param("entityType") ActivityEntityType entityType,
+                                           @Param("entityId") Long entityId,
+                                           @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                           Pageable pageable);
+
+    /**
+     * Lead stage changes since {@code since}, grouped by the stage moved into. Reads
+     * the partial expression index from V15; PostgreSQL only.
+     */
+    @Query(value = "SELECT payload->>'newStage' AS stage, COUNT(*) AS total FROM activities " +
+                   "WHERE activity_type = 'STAGE_CHANGED' AND created_at >= :since " +
+                   "GROUP BY payload->>'newStage'",
+           nativeQuery = true)
+    List<StageTransitionCount> countStageTransitionsSince(@Param("since") LocalDateTime since);
 }
@@ -1,22 +1,61 @@
 package com.martiniano.crm.repository;
 
+import com.martiniano.crm.dto.ClientSummary;
 import com.martiniano.crm.entity.Client;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
+
+    String SUMMARY = "SELECT c.id AS id, c.name AS name, c.company AS company, c.email AS email, " +
+                     "c.phone AS phone, c.status AS status, c.createdAt AS createdAt FROM Client c ";
+
     Optional<Client> findByEmail(String email);
     Page<Client> findByStatus(String status, Pageable pageable);
     
-    @Query("SELECT c FROM Client c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
+    /** Unindexed LIKE scan, used when {@code app.search.full-text} is off (H2 in tests). */
+    @Query(SUMMARY + "WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
            "OR LOWER(c.email) LIKE LOWER(CONCAT('%', :search, '%')) " +
            "OR LOWER(c.company) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Client> searchClients(@Param("search") String search, Pageable pageable);
+    Page<ClientSummary> searchClients(@Param("search") String search, Pageable pageable);
+
+    /**
+     * Ranked full-text search backed by the GIN indexes from V6. Word matches come
+     * from {@code search_vector}, substring matches from the trigram index on
+     * {@code search_text}; {@code pattern} is a lower-cased, escaped {@code %term%}.
+     * PostgreSQL only.
+     */
+    @Query(value = "SELECT c.id AS id, c.name AS name, c.company AS company, c.email AS email, " +
+           "c.phone AS phone, c.status AS status, c.created_at AS \"createdAt\" FROM clients c " +
+           "WHERE c.search_vector @@ WEBSEARCH_TO_TSQUERY('simple', :search) " +
+           "OR c.search_text LIKE :pattern " +
+           "ORDER BY TS_RANK(c.search_vector, WEBSEARCH_TO_TSQUERY('simple', :search)) DESC, c.id DESC",
+           countQuery = "SELECT COUNT(*) FROM clients c " +
+           "WHERE c.search_vector @@ WEBSEARCH_TO_TSQUERY('simple', :search) " +
+           "OR c.search_text LIKE :pattern",
+           nativeQuery = true)
+    Page<ClientSummary> searchFullText(@Param("search") String search, @Param("pattern") String pattern, Pageable pageable);
+
+    @Query(SUMMARY)
+    Page<ClientSummary> findSummaries(Pageable pageable);
+
+    @Query(SUMMARY + "WHERE c.status = :status")
+    Page<ClientSummary> findSummariesByStatus(@Param("status") String status, Pageable pageable);
+
+    @Query(SUMMARY + "ORDER BY c.createdAt DESC, c.id DESC")
+    Slice<ClientSummary> findFirstSlice(Pageable pageable);
+
+    @Query(SUMMARY + "WHERE (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    Slice<ClientSummary> findSliceBefore(@Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,26 @@
+package com.martiniano.crm.repository;
+
+import com.martiniano.crm.entity.KpiCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface KpiCounterRepository extends JpaRepository<KpiCounter, KpiCounter.Key> {
+    List<KpiCounter> findByMetricIn(Collection<String> metrics);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM KpiCounter c WHERE c.metric IN :metrics ORDER BY c.metric, c.dimension")
+    List<KpiCounter> lockByMetricIn(@Param("metrics") Collection<String> metrics);
+
+    @Modifying
+    @Query("DELETE FROM KpiCounter c WHERE c.metric = :metric AND c.dimension < :dimension")
+    int deleteByMetricAndDimensionBefore(@Param("metric") String metric, @Param("dimension") String dimension);
+}
@@ -1,8 +1,13 @@
 package com.martiniano.crm.repository;
 
+import com.martiniano.crm.dto.LeadDayCount;
+import com.martiniano.crm.dto.LeadStageCount;
+import com.martiniano.crm.dto.LeadSummary;
 import com.martiniano.crm.entity.Lead;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,20 +15,82 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface LeadRepository extends JpaRepository<Lead, Long> {
+
+    String SUMMARY = "SELECT l.id AS id, l.name AS name, l.email AS email, l.phone AS phone, " +
+                     "l.company AS company, l.stage AS stage, l.priority AS priority, l.source AS source, " +
+                     "l.assignedTo.id AS assignedToId, l.createdAt AS createdAt FROM Lead l ";
+
+    /*
+     * Entity reads fetch the assignee in the same statement. assignedTo is LAZY, so
+     * without the graph every serialized lead costs one extra SELECT on users.
+     */
+    @EntityGraph(attributePaths = "assignedTo")
+    Optional<Lead> findWithAssigneeById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "assignedTo")
+    Page<Lead> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "assignedTo")
     Page<Lead> findByStage(String stage, Pageable pageable);
+
+    @EntityGraph(attributePaths = "assignedTo")
     Page<Lead> findBySource(String source, Pageable pageable);
     
     @Query("SELECT l FROM Lead l WHERE l.stage = :stage AND l.createdAt >= :since")
     List<Lead> findByStageAndCreatedAtAfter(@Param("stage") String stage, @Param("since") LocalDateTime since);
     
-    @Query("SELECT l FROM Lead l WHERE LOWER(l.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
+    /** Unindexed LIKE scan, used when {@code app.search.full-text} is off (H2 in tests). */
+    @Query(SUMMARY + "WHERE LOWER(l.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
            "OR LOWER(l.email) LIKE LOWER(CONCAT('%', :search, '%')) " +
            "OR LOWER(l.company) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Lead> searchLeads(@Param("search") String search, Pageable pageable);
+    Page<LeadSummary> searchLeads(@Param("search") String search, Pageable pageable);
+
+    /**
+     * Ranked full-text search backed by the GIN indexes from V6. Word matches come
+     * from {@code search_vector}, substring matches from the trigram index on
+     * {@code search_text}; {@code pattern} is a lower-cased, escaped {@code %term%}.
+     * PostgreSQL only.
+     */
+    @Query(value = "SELECT l.id AS id, l.name AS name, l.email AS email, l.phone AS phone, " +
+           "l.company AS company, l.stage AS stage, l.priority AS priority, l.source AS source, " +
+           "l.assigned_to AS \"assignedToId\", l.created_at AS \"createdAt\" FROM leads l " +
+           "WHERE l.search_vector @@ WEBSEARCH_TO_TSQUERY('simple', :search) " +
+           "OR l.search_text LIKE :pattern " +
+           "ORDER BY TS_RANK(l.search_vector, WEBSEARCH_TO_TSQUERY('simple', :search)) DESC, l.id DESC",
+           countQuery = "SELECT COUNT(*) FROM leads l " +
+           "WHERE l.search_vector @@ WEBSEARCH_TO_TSQUERY('simple', :search) " +
+           "OR l.search_text LIKE :pattern",
+           nativeQuery = true)
+    Page<LeadSummary> searchFullText(@Param("search") String search, @Param("pattern") String pattern, Pageable pageable);
     
     long countByStage(String stage);
     long countByCreatedAtAfter(LocalDateTime since);
+
+    @Query("SELECT l.stage AS stage, COUNT(l) AS total, " +
+           "SUM(CASE WHEN l.createdAt >= :since THEN 1L ELSE 0L END) AS recent " +
+           "FROM Lead l GROUP BY l.stage")
+    List<LeadStageCount> countGroupedByStage(@Param("since") LocalDateTime since);
+
+    @Query("SELECT CAST(l.createdAt AS LocalDate) AS createdDate, COUNT(l) AS total " +
+           "FROM Lead l WHERE l.createdAt >= :since GROUP BY CAST(l.createdAt AS LocalDate)")
+    List<LeadDayCount> countGroupedByCreatedDate(@Param("since") LocalDateTime since);
+
+    @Query(SUMMARY)
+    Page<LeadSummary> findSummaries(Pageable pageable);
+
+    @Query(SUMMARY + "WHERE l.stage = :stage")
+    Page<LeadSummary> findSummariesByStage(@Param("stage") String stage, Pageable pageable);
+
+    @Query(SUMMARY + "ORDER BY l.createdAt DESC, l.id DESC")
+    Slice<LeadSummary> findFirstSlice(Pageable pageable);
+
+    @Query(SUMMARY + "WHERE (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) " +
+           "ORDER BY l.createdAt DESC, l.id DESC")
+    Slice<LeadSummary> findSliceBefore(@Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,13 @@
+package com.martiniano.crm.repository;
+
+import com.martiniano.crm.entity.Notification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+    List<Notification> findByStatus(String status);
+    long countByStatus(String status);
+}
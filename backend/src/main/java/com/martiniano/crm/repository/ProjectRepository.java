@@ -1,16 +1,47 @@
 package com.martiniano.crm.repository;
 
+import com.martiniano.crm.dto.ProjectStatusCount;
+import com.martiniano.crm.dto.ProjectSummary;
 import com.martiniano.crm.entity.Project;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
+
+    String SUMMARY = "SELECT p.id AS id, p.clientId AS clientId, p.name AS name, p.status AS status, " +
+                     "p.startDate AS startDate, p.targetDate AS targetDate, p.createdAt AS createdAt FROM Project p ";
+
     List<Project> findByClientId(Long clientId);
     Page<Project> findByStatus(String status, Pageable pageable);
     long countByStatus(String status);
+
+    @Query("SELECT p.status AS status, COUNT(p) AS total FROM Project p GROUP BY p.status")
+    List<ProjectStatusCount> countGroupedByStatus();
+
+    @Query("SELECT p.status AS status, COUNT(p) AS total FROM Project p " +
+           "WHERE p.clientId = :clientId GROUP BY p.status")
+    List<ProjectStatusCount> countGroupedByStatusForClient(@Param("clientId") Long clientId);
+
+    @Query(SUMMARY)
+    Page<ProjectSummary> findSummaries(Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.status = :status")
+    Page<ProjectSummary> findSummariesByStatus(@Param("status") String status, Pageable pageable);
+
+    @Query(SUMMARY + "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<ProjectSummary> findFirstSlice(Pageable pageable);
+
+    @Query(SUMMARY + "WHERE (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<ProjectSummary> findSliceBefore(@Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id, Pageable pageable);
 }
@@ -1,5 +1,6 @@
 package com.martiniano.crm.repository;
 
+import com.martiniano.crm.dto.ReminderDue;
 import com.martiniano.crm.entity.Reminder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,12 +10,36 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ReminderRepository extends JpaRepository<Reminder, Long> {
     Page<Reminder> findByEntityTypeAndEntityIdOrderByDueAtAsc(String entityType, Long entityId, Pageable pageable);
     
-    @Query("SELECT r FROM Reminder r WHERE r.status = 'PENDING' AND r.dueAt <= :now ORDER BY r.dueAt ASC")
-    List<Reminder> findDueReminders(@Param("now") LocalDateTime now);
+    /**
+     * Locks up to {@code limit} due reminders with {@code FOR UPDATE SKIP LOCKED}: rows
+     * another instance has already claimed are skipped instead of waited on, so
+     * concurrent pollers split the backlog between them. Backed by the partial
+     * index {@code idx_reminders_pending_due}. Native because Hibernate's H2 dialect
+     * drops the SKIP LOCKED clause.
+     */
+    @Query(value = "SELECT * FROM reminders WHERE status = 'PENDING' AND due_at <= :now " +
+                   "ORDER BY due_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Reminder> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Same as {@link #claimDue} but restricted to the given ids, for reminders the
+     * in-memory schedule has just fired. Rows already fired by the poller or another
+     * instance are no longer {@code PENDING} or are locked, and are skipped.
+     */
+    @Query(value = "SELECT * FROM reminders WHERE id IN (:ids) AND status = 'PENDING' AND due_at <= :now " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Reminder> claimDueByIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.id AS id, r.dueAt AS dueAt FROM Reminder r " +
+           "WHERE r.status = 'PENDING' AND r.dueAt > :from AND r.dueAt <= :to")
+    List<ReminderDue> findPendingDueBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -2,7 +2,13 @@ package com.martiniano.crm.repository;
 
 import com.martiniano.crm.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +17,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id AND u.enabled = true")
+    Optional<Integer> findActiveTokenVersion(@Param("id") Long id);
+
+    /**
+     * Login lookup in one query: users whose email or username equals {@code login},
+     * an email match first. Both columns are unique, so there are at most two rows.
+     */
+    @Query("SELECT u FROM User u WHERE u.email = :login OR u.username = :login " +
+           "ORDER BY CASE WHEN u.email = :login THEN 0 ELSE 1 END")
+    List<User> findAllByLogin(@Param("login") String login);
+
+    default Optional<User> findByLogin(String login) {
+        return findAllByLogin(login).stream().findFirst();
+    }
+
+    /** Replaces the hash only if it is still the one that was verified. */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :id AND u.passwordHash = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
@@ -1,27 +1,50 @@
 package com.martiniano.crm.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
+/**
+ * Authenticates requests from the bearer token alone. The principal and its
+ * authorities come from the token's claims; the only per-user state consulted is
+ * the token version in {@link UserVersionCache}, so disabling a user or changing
+ * their role still revokes tokens issued before the change.
+ *
+ * The authenticated context is also saved as a request attribute. The filter skips
+ * the ASYNC and ERROR dispatches of a request, and the stateless security chain
+ * reloads the context from that attribute for them. Without it, streamed exports and
+ * SSE streams would be denied as anonymous when they complete.
+ */
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-    private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserVersionCache userVersionCache;
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
 
-    public JwtRequestFilter(CustomUserDetailsService userDetailsService, JwtUtil jwtUtil) {
-        this.userDetailsService = userDetailsService;
+    public JwtRequestFilter(JwtUtil jwtUtil,
+                            VerifiedTokenCache verifiedTokenCache,
+                            UserVersionCache userVersionCache) {
         this.jwtUtil = jwtUtil;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.userVersionCache = userVersionCache;
     }
 
     @Override
@@ -30,28 +53,58 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolvePrincipal(authorizationHeader.substring(7));
 
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            if (userDetails != null) {
+                UsernamePasswordAuthenticationToken authenticationToken =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authenticationToken);
+                SecurityContextHolder.setContext(context);
+                securityContextRepository.saveContext(context, request, response);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Returns the principal for a valid, unrevoked token: from the verified-token
+     * cache when possible, otherwise after one parse of the token.
+     */
+    UserDetails resolvePrincipal(String jwt) {
+        VerifiedTokenCache.VerifiedToken verified = verifiedTokenCache.get(jwt);
+        if (verified == null) {
             try {
-                username = jwtUtil.extractUsername(jwt);
+                verified = toVerifiedToken(jwtUtil.parseClaims(jwt));
             } catch (Exception e) {
                 logger.warn("JWT Token extraction failed: " + e.getMessage());
+                return null;
             }
+            verifiedTokenCache.put(jwt, verified);
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (!userVersionCache.isCurrent(verified.userId(), verified.version())) {
+            return null;
+        }
+        return verified.principal();
+    }
 
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            }
+    private VerifiedTokenCache.VerifiedToken toVerifiedToken(Claims claims) {
+        Number userId = claims.get(JwtUtil.CLAIM_USER_ID, Number.class);
+        Number version = claims.get(JwtUtil.CLAIM_VERSION, Number.class);
+        List<?> roles = claims.get(JwtUtil.CLAIM_ROLES, List.class);
+        if (userId == null || version == null || roles == null) {
+            throw new IllegalArgumentException("token predates user version claims");
         }
-        chain.doFilter(request, response);
+
+        List<SimpleGrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        UserDetails principal = new User(claims.getSubject(), "", authorities);
+        return new VerifiedTokenCache.VerifiedToken(
+                principal, userId.longValue(), version.intValue(), claims.getExpiration().toInstant());
     }
 }
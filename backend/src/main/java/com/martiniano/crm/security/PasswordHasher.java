@@ -0,0 +1,145 @@
+package com.martiniano.crm.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt verification on a small dedicated pool instead of the request thread,
+ * so a login storm uses at most {@code app.auth.hashing.threads} cores and the rest
+ * of the API stays responsive. Once {@code queue-capacity} verifications are waiting,
+ * further logins fail fast with {@link BusyException} (503 + Retry-After) rather than
+ * queueing behind work that will not finish in time.
+ *
+ * A hash stored with a cost other than {@code app.auth.bcrypt.strength} is re-encoded
+ * on the same pool after a successful match, so changing the cost migrates users as
+ * they log in.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    /** Outcome of a verification; {@code upgradedHash} is set when the stored hash should be replaced. */
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final Duration retryAfter;
+    private final ThreadPoolExecutor pool;
+    private final Counter rejections;
+    private final Counter rehashes;
+    private final Timer verifyTimer;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.auth.bcrypt.strength:10}") int strength,
+                          @Value("${app.auth.hashing.threads:0}") int threads,
+                          @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${app.auth.hashing.retry-after:1000}") long retryAfterMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.retryAfter = Duration.ofMillis(retryAfterMs);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("auth.hashing.queued", pool, executor -> executor.getQueue().size())
+                .description("Password verifications waiting for a hashing thread")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("auth.hashing.rejected")
+                .description("Logins turned away because the hashing queue was full")
+                .register(meterRegistry);
+        this.rehashes = Counter.builder("auth.hashing.rehashed")
+                .description("Stored password hashes re-encoded with the configured cost")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.hashing.verify")
+                .description("Password verification time, excluding the wait for a thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Checks {@code rawPassword} against {@code storedHash}, blocking the caller until
+     * a hashing thread has done so.
+     *
+     * @throws BusyException if the queue is full
+     */
+    public Verification verify(String rawPassword, String storedHash) {
+        Future<Verification> result;
+        try {
+            result = pool.submit(() -> verifyTimer.record(() -> {
+                if (!passwordEncoder.matches(rawPassword, storedHash)) {
+                    return new Verification(false, null);
+                }
+                if (!needsRehash(storedHash)) {
+                    return new Verification(true, null);
+                }
+                rehashes.increment();
+                return new Verification(true, passwordEncoder.encode(rawPassword));
+            }));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new BusyException(retryAfter);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** True for BCrypt hashes whose cost differs from the configured one, up or down. */
+    boolean needsRehash(String storedHash) {
+        Matcher matcher = BCRYPT_COST.matcher(storedHash == null ? "" : storedHash);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public static class BusyException extends RuntimeException {
+
+        private final Duration retryAfter;
+
+        public BusyException(Duration retryAfter) {
+            super("Too many logins in progress, try again shortly");
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.martiniano.crm.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.martiniano.crm.entity.UserVersionChangedEvent;
+import com.martiniano.crm.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * In-process cache of each user's current token version, checked against the
+ * {@code ver} claim on every authenticated request. Entries are evicted after a
+ * committed change to the user on this node; other nodes pick the change up
+ * within {@code app.jwt.user-version.ttl}.
+ */
+@Component
+public class UserVersionCache {
+
+    /** Cached for users that no longer exist or are disabled; matches no token. */
+    static final int REVOKED = -1;
+
+    private final LoadingCache<Long, Integer> versions;
+
+    public UserVersionCache(UserRepository userRepository,
+                            @Value("${app.jwt.user-version.max-size:10000}") long maxSize,
+                            @Value("${app.jwt.user-version.ttl:30000}") long ttlMs) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build(userId -> userRepository.findActiveTokenVersion(userId).orElse(REVOKED));
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return userId != null && versions.get(userId) == tokenVersion;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserVersionChanged(UserVersionChangedEvent event) {
+        versions.invalidate(event.userId());
+    }
+}
@@ -0,0 +1,268 @@
+package com.martiniano.crm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.martiniano.crm.entity.Activity;
+import com.martiniano.crm.entity.ActivityOutboxEntry;
+import com.martiniano.crm.entity.ActivityPayload;
+import com.martiniano.crm.repository.ActivityOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional asynchronous writer for the activity log ({@code app.activity.async.enabled}).
+ *
+ * Callers write each activity to the {@code activity_outbox} table inside their own
+ * transaction, so an activity commits or rolls back with the change it records and
+ * survives a crash once committed. A single background thread moves the outbox into
+ * {@code activities} with JDBC batch inserts, up to {@code flush-size} rows per
+ * transaction, deleting the rows it inserted in that same transaction. A failed batch
+ * rolls back and stays in the outbox; the writer backs off and retries it until it
+ * succeeds, so rows are delayed but never dropped. Batches are claimed with
+ * {@code SKIP LOCKED}, so several instances can drain the same outbox.
+ */
+@Component
+public class ActivityBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityBatchWriter.class);
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final IdentifierGenerator idGenerator;
+    private final ActivityOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectWriter payloadWriter;
+    private final String insertSql;
+    private final boolean enabled;
+    private final int flushSize;
+    private final long flushIntervalMs;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public ActivityBatchWriter(JdbcTemplate jdbcTemplate,
+                               EntityManager entityManager,
+                               ActivityOutboxRepository outboxRepository,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher,
+                               ObjectMapper objectMapper,
+                               EntityManagerFactory entityManagerFactory,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.activity.async.enabled:false}") boolean enabled,
+                               @Value("${app.activity.async.flush-size:100}") int flushSize,
+                               @Value("${app.activity.async.flush-interval:200}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        // Resolved once: writes skip the per-call serializer lookup for the payload type
+        this.payloadWriter = objectMapper.writerFor(ActivityPayload.class);
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        // Hibernate's own generator for Activity: batch rows and persisted entities draw
+        // ids from the same pooled block, one sequence call per 50 ids
+        this.idGenerator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Activity.class).getGenerator();
+        // H2 (tests) turns a cast string into a JSON string value; FORMAT JSON parses it
+        String payloadParameter = sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQLDialect
+                ? "CAST(? AS jsonb)" : "? FORMAT JSON";
+        this.insertSql = "INSERT INTO activities (id, entity_type, entity_id, activity_type, description, payload, created_by, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, " + payloadParameter + ", ?, ?)";
+        this.enabled = enabled;
+        this.flushSize = flushSize;
+        this.flushIntervalMs = flushIntervalMs;
+        if (enabled) {
+            Gauge.builder("activity.outbox.depth", outboxRepository, ActivityOutboxRepository::count)
+                    .description("Activities waiting in the outbox for the async batch writer")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "activity-batch-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Stops the background thread; whatever is still in the outbox is drained after the next start. */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        Thread current = worker;
+        if (current == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(current);
+        current.join(TimeUnit.SECONDS.toMillis(10));
+        worker = null;
+    }
+
+    /**
+     * Writes the activity to the outbox in the current transaction (or its own, when
+     * called outside one) and wakes the writer once that commits.
+     */
+    public void enqueue(Activity activity) {
+        outboxRepository.save(toEntry(activity));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    private void wakeUp() {
+        Thread current = worker;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    private void run() {
+        int failures = 0;
+        while (running) {
+            try {
+                int drained;
+                do {
+                    drained = drain();
+                } while (drained == flushSize && running);
+                failures = 0;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            } catch (RuntimeException e) {
+                failures++;
+                long backoffMs = Math.min(flushIntervalMs << Math.min(failures, 16), MAX_BACKOFF_MS);
+                log.warn("Activity outbox drain failed {} time(s) in a row, retrying in {} ms: {}",
+                        failures, backoffMs, e.getMessage());
+                // Commits keep waking the thread; sleep out the whole backoff regardless
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+                long left;
+                while (running && (left = until - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(left);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the oldest {@code flush-size} outbox rows into {@code activities} in one
+     * transaction, publishing an {@link ActivityLoggedEvent} for each once that commits
+     * and the activities can be read by id. Returns the number moved.
+     */
+    int drain() {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<ActivityOutboxEntry> entries = outboxRepository.claimBatch(flushSize);
+            if (entries.isEmpty()) {
+                return 0;
+            }
+            List<Activity> activities = entries.stream().map(ActivityBatchWriter::toActivity).toList();
+            insertBatch(activities);
+            outboxRepository.deleteAllInBatch(entries);
+            activities.forEach(activity -> eventPublisher.publishEvent(new ActivityLoggedEvent(activity)));
+            return entries.size();
+        });
+        return moved != null ? moved : 0;
+    }
+
+    /**
+     * Inserts the activities with one JDBC batch on the caller's connection, so they
+     * commit or roll back with the surrounding transaction, and sets their ids. Must
+     * run inside a transaction. Used by bulk write paths regardless of whether the
+     * async writer is enabled.
+     */
+    public void insertBatch(List<Activity> batch) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        for (Activity activity : batch) {
+            activity.setId((Long) idGenerator.generate(session, activity));
+        }
+        jdbcTemplate.batchUpdate(insertSql, batch, batch.size(), (ps, activity) -> {
+            ps.setLong(1, activity.getId());
+            ps.setShort(2, activity.getEntityType().getCode());
+            ps.setLong(3, activity.getEntityId());
+            ps.setString(4, activity.getActivityType());
+            ps.setString(5, activity.getDescription());
+            ps.setString(6, toJson(activity));
+            if (activity.getCreatedBy() != null) {
+                ps.setLong(7, activity.getCreatedBy());
+            } else {
+                ps.setNull(7, Types.BIGINT);
+            }
+            ps.setTimestamp(8, Timestamp.valueOf(activity.getCreatedAt()));
+        });
+    }
+
+    private static ActivityOutboxEntry toEntry(Activity activity) {
+        ActivityOutboxEntry entry = new ActivityOutboxEntry();
+        entry.setEntityType(activity.getEntityType());
+        entry.setEntityId(activity.getEntityId());
+        entry.setActivityType(activity.getActivityType());
+        entry.setDescription(activity.getDescription());
+        entry.setPayload(activity.getPayload());
+        entry.setCreatedBy(activity.getCreatedBy());
+        entry.setCreatedAt(activity.getCreatedAt());
+        return entry;
+    }
+
+    private static Activity toActivity(ActivityOutboxEntry entry) {
+        Activity activity = new Activity();
+        activity.setEntityType(entry.getEntityType());
+        activity.setEntityId(entry.getEntityId());
+        activity.setActivityType(entry.getActivityType());
+        activity.setDescription(entry.getDescription());
+        activity.setPayload(entry.getPayload());
+        activity.setCreatedBy(entry.getCreatedBy());
+        activity.setCreatedAt(entry.getCreatedAt());
+        return activity;
+    }
+
+    private String toJson(Activity activity) {
+        if (activity.getPayload() == null) {
+            return null;
+        }
+        try {
+            return payloadWriter.writeValueAsString(activity.getPayload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Activity payload is not serializable", e);
+        }
+    }
+}
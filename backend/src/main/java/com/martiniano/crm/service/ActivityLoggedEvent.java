@@ -0,0 +1,12 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.entity.Activity;
+
+/**
+ * Published for every activity once it is in {@code activities} with its id: by
+ * {@link ActivityService}, or by {@link ActivityBatchWriter} when it moves an async
+ * activity out of the outbox. Listeners bound to {@code AFTER_COMMIT} only see
+ * activities that actually committed.
+ */
+public record ActivityLoggedEvent(Activity activity) {
+}
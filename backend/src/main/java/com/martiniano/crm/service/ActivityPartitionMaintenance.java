@@ -0,0 +1,178 @@
+package com.martiniano.crm.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Housekeeping for the month-partitioned {@code activities} table (see V12): keeps
+ * partitions for the next {@code months-ahead} months in place, so inserts never
+ * land in the default partition, and applies the retention policy. A partition older
+ * than {@code retention.months} is first rolled up into
+ * {@code activity_daily_rollups} (one row per entity, day and activity type), then
+ * dropped, or with {@code retention.mode: detach} detached and left in place as a
+ * standalone table for archiving. No row is ever DELETE-d.
+ *
+ * Runs on PostgreSQL only. Every step holds a transaction-scoped advisory lock, so
+ * nodes running it at the same time do not roll a partition up twice.
+ */
+@Service
+public class ActivityPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityPartitionMaintenance.class);
+
+    static final String PARENT = "activities";
+    private static final Pattern PARTITION_NAME = Pattern.compile("activities_p(\\d{6})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM", Locale.ROOT);
+    /** Arbitrary advisory lock key serializing maintenance across nodes. */
+    private static final long LOCK_KEY = 0x61637469766974L;
+
+    public enum RetentionMode { DROP, DETACH }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean active;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final RetentionMode retentionMode;
+
+    public ActivityPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        EntityManagerFactory entityManagerFactory,
+                                        @Value("${app.activity.partitions.enabled:true}") boolean enabled,
+                                        @Value("${app.activity.partitions.months-ahead:3}") int monthsAhead,
+                                        @Value("${app.activity.retention.months:0}") int retentionMonths,
+                                        @Value("${app.activity.retention.mode:drop}") String retentionMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.active = enabled && entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionMode = RetentionMode.valueOf(retentionMode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Scheduled(fixedDelayString = "${app.activity.partitions.maintenance-interval:86400000}",
+               initialDelayString = "${app.activity.partitions.initial-delay:60000}")
+    public void maintain() {
+        if (!active) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (YearMonth month : upcoming(current, monthsAhead)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lock();
+                    if (!attachedPartitions().contains(month)) {
+                        jdbcTemplate.execute(createPartitionSql(month));
+                        log.info("Created activities partition {}", partitionName(month));
+                    }
+                });
+            } catch (DataAccessException e) {
+                // Typically rows for that month already sit in the default partition
+                log.error("Could not create activities partition {}", partitionName(month), e);
+            }
+        }
+        if (retentionMonths > 0) {
+            for (YearMonth month : expired(attachedPartitions(), current, retentionMonths)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lock();
+                    if (attachedPartitions().contains(month)) {
+                        retire(month);
+                    }
+                });
+            }
+        }
+    }
+
+    private void retire(YearMonth month) {
+        String partition = partitionName(month);
+        int rollups = jdbcTemplate.update(rollupSql(partition));
+        if (retentionMode == RetentionMode.DETACH) {
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + partition);
+        } else {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        }
+        log.info("Rolled activities partition {} up into {} daily rows and {} it",
+                partition, rollups, retentionMode == RetentionMode.DETACH ? "detached" : "dropped");
+    }
+
+    private void lock() {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)::text", String.class, LOCK_KEY);
+    }
+
+    private Set<YearMonth> attachedPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ?", String.class, PARENT);
+        return names.stream()
+                .map(ActivityPartitionMaintenance::parsePartitionName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARENT + "_p" + month.format(SUFFIX);
+    }
+
+    /** The month a partition covers, or null for names not following the scheme (the default partition). */
+    static YearMonth parsePartitionName(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        return matcher.matches() ? YearMonth.parse(matcher.group(1), SUFFIX) : null;
+    }
+
+    static List<YearMonth> upcoming(YearMonth current, int monthsAhead) {
+        return IntStream.rangeClosed(0, monthsAhead)
+                .mapToObj(current::plusMonths)
+                .toList();
+    }
+
+    /** Partitions whose whole month lies before the retention window, oldest first. */
+    static List<YearMonth> expired(Collection<YearMonth> partitions, YearMonth current, int retentionMonths) {
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        return partitions.stream()
+                .filter(month -> month.isBefore(oldestKept))
+                .sorted()
+                .toList();
+    }
+
+    static String createPartitionSql(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + PARENT +
+               " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    static String rollupSql(String partition) {
+        return "INSERT INTO activity_daily_rollups " +
+               "(entity_type, entity_id, activity_date, activity_type, activity_count, first_at, last_at) " +
+               "SELECT entity_type, entity_id, CAST(created_at AS DATE), activity_type, COUNT(*), MIN(created_at), MAX(created_at) " +
+               "FROM " + partition + " GROUP BY entity_type, entity_id, CAST(created_at AS DATE), activity_type " +
+               "ON CONFLICT (entity_type, entity_id, activity_date, activity_type) DO UPDATE SET " +
+               "activity_count = activity_daily_rollups.activity_count + EXCLUDED.activity_count, " +
+               "first_at = LEAST(activity_daily_rollups.first_at, EXCLUDED.first_at), " +
+               "last_at = GREATEST(activity_daily_rollups.last_at, EXCLUDED.last_at)";
+    }
+}
@@ -1,23 +1,44 @@
 package com.martiniano.crm.service;
 
 import com.martiniano.crm.dto.ActivityRequest;
+import com.martiniano.crm.dto.ActivitySummary;
+import com.martiniano.crm.dto.CursorPage;
+import com.martiniano.crm.dto.PageCursor;
+import com.martiniano.crm.dto.StageTransitionCount;
 import com.martiniano.crm.entity.Activity;
+import com.martiniano.crm.entity.ActivityDailyRollup;
+import com.martiniano.crm.entity.ActivityEntityType;
+import com.martiniano.crm.entity.ActivityPayload;
+import com.martiniano.crm.repository.ActivityDailyRollupRepository;
 import com.martiniano.crm.repository.ActivityRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Map;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 public class ActivityService {
 
     private final ActivityRepository activityRepository;
+    private final ActivityDailyRollupRepository activityDailyRollupRepository;
+    private final ActivityBatchWriter activityBatchWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ActivityService(ActivityRepository activityRepository) {
+    public ActivityService(ActivityRepository activityRepository,
+                           ActivityDailyRollupRepository activityDailyRollupRepository,
+                           ActivityBatchWriter activityBatchWriter,
+                           ApplicationEventPublisher eventPublisher) {
         this.activityRepository = activityRepository;
+        this.activityDailyRollupRepository = activityDailyRollupRepository;
+        this.activityBatchWriter = activityBatchWriter;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -27,14 +48,22 @@ public class ActivityService {
         activity.setEntityId(request.getEntityId());
         activity.setActivityType(request.getActivityType());
         activity.setDescription(request.getDescription());
-        activity.setPayload(request.getPayload());
+        activity.setPayload(request.getPayload() == null ? null : new ActivityPayload.Custom(request.getPayload()));
 
-        return activityRepository.save(activity);
+        Activity saved = activityRepository.save(activity);
+        eventPublisher.publishEvent(new ActivityLoggedEvent(saved));
+        return saved;
     }
 
+    /**
+     * Records an activity for a mutation. In async mode the activity goes to the
+     * {@link ActivityBatchWriter} outbox in the caller's transaction, is copied into
+     * {@code activities} in the background, and the returned instance has no id; the
+     * writer publishes its {@link ActivityLoggedEvent} once it has one.
+     */
     @Transactional
-    public Activity logActivity(String entityType, Long entityId, String activityType, 
-                                String description, Map<String, Object> payload, Long createdBy) {
+    public Activity logActivity(ActivityEntityType entityType, Long entityId, String activityType, 
+                                String description, ActivityPayload payload, Long createdBy) {
         Activity activity = new Activity();
         activity.setEntityType(entityType);
         activity.setEntityId(entityId);
@@ -43,20 +72,83 @@ public class ActivityService {
         activity.setPayload(payload);
         activity.setCreatedBy(createdBy);
 
-        return activityRepository.save(activity);
+        if (activityBatchWriter.isEnabled()) {
+            activityBatchWriter.enqueue(activity);
+        } else {
+            activity = activityRepository.save(activity);
+            eventPublisher.publishEvent(new ActivityLoggedEvent(activity));
+        }
+        return activity;
     }
 
+    /**
+     * Records the activities of entities created in bulk with a single batched insert
+     * in the caller's transaction, and sets their ids. No {@link ActivityLoggedEvent} is
+     * published: no stream, on this or another instance, can follow an entity created in
+     * the same transaction, and an event per row would mean a NOTIFY per imported row.
+     */
+    @Transactional
+    public void logActivities(List<Activity> activities) {
+        if (!activities.isEmpty()) {
+            activityBatchWriter.insertBatch(activities);
+        }
+    }
+
+    /**
+     * Newest-first timeline page. Entries carry no description or payload; fetch
+     * those per item with {@link #getActivity(Long)}.
+     */
     @Transactional(readOnly = true)
-    public Page<Activity> getActivityTimeline(String entityType, Long entityId, Pageable pageable) {
-        return activityRepository.findByEntityTypeAndEntityIdOrderByCreatedAtDesc(
-                entityType, entityId, pageable);
+    public Page<ActivitySummary> getActivityTimeline(ActivityEntityType entityType, Long entityId, Pageable pageable) {
+        return activityRepository.findTimeline(entityType, entityId, pageable);
     }
 
     @Transactional(readOnly = true)
-    public Page<Activity> getActivityTimeline(String entityType, Long entityId, int page, int size) {
+    public Page<ActivitySummary> getActivityTimeline(ActivityEntityType entityType, Long entityId, int page, int size) {
         return getActivityTimeline(entityType, entityId, PageRequest.of(page, size));
     }
 
+    /**
+     * Newest-first timeline page for infinite scroll. The cursor seeks straight to
+     * {@code (created_at, id)} on the entity index, so page 200 costs the same as
+     * page 1, and no {@code COUNT(*)} is issued.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ActivitySummary> scrollActivityTimeline(ActivityEntityType entityType, Long entityId,
+                                                              String cursor, int size) {
+        Pageable limit = PageRequest.of(0, CursorPage.clampSize(size));
+        Slice<ActivitySummary> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = activityRepository.findFirstSlice(entityType, entityId, limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            slice = activityRepository.findSliceBefore(entityType, entityId, after.createdAt(), after.id(), limit);
+        }
+        return CursorPage.of(slice, activity -> new PageCursor(activity.getCreatedAt(), activity.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public Activity getActivity(Long id) {
+        return activityRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Activity not found with id: " + id));
+    }
+
+    /**
+     * Daily counts per activity type for history older than the retention window,
+     * whose individual activities are no longer kept. Newest day first.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ActivityDailyRollup> getDailySummary(ActivityEntityType entityType, Long entityId, Pageable pageable) {
+        return activityDailyRollupRepository.findByEntityTypeAndEntityIdOrderByActivityDateDescActivityTypeAsc(
+                entityType, entityId, pageable);
+    }
+
+    /** Lead stage changes since {@code since}, counted per stage moved into. */
+    @Transactional(readOnly = true)
+    public List<StageTransitionCount> getStageTransitions(LocalDateTime since) {
+        return activityRepository.countStageTransitionsSince(since);
+    }
+
     @Transactional(readOnly = true)
     public Page<Activity> getAllActivities(Pageable pageable) {
         return activityRepository.findAll(pageable);
@@ -4,14 +4,11 @@ import com.martiniano.crm.dto.LoginRequest;
 import com.martiniano.crm.dto.LoginResponse;
 import com.martiniano.crm.entity.User;
 import com.martiniano.crm.repository.UserRepository;
-import com.martiniano.crm.security.CustomUserDetailsService;
 import com.martiniano.crm.security.JwtUtil;
+import com.martiniano.crm.security.PasswordHasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -19,55 +16,51 @@ public class AuthService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
     
-    private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final UserRepository userRepository;
+    private final RefreshTokenService refreshTokenService;
 
-    public AuthService(CustomUserDetailsService userDetailsService,
-                       JwtUtil jwtUtil,
-                       PasswordEncoder passwordEncoder,
-                       UserRepository userRepository) {
-        this.userDetailsService = userDetailsService;
+    public AuthService(JwtUtil jwtUtil,
+                       PasswordHasher passwordHasher,
+                       UserRepository userRepository,
+                       RefreshTokenService refreshTokenService) {
         this.jwtUtil = jwtUtil;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.userRepository = userRepository;
+        this.refreshTokenService = refreshTokenService;
     }
 
     public LoginResponse authenticate(LoginRequest loginRequest) {
         log.debug("Attempting authentication for email: {}", loginRequest.getEmail());
-        
-        try {
-            // loadUserByUsername now supports both username and email for backward compatibility
-            UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getEmail());
-            log.debug("User found in database for email: {}", loginRequest.getEmail());
-            
-            if (!passwordEncoder.matches(loginRequest.getPassword(), userDetails.getPassword())) {
-                log.warn("Password mismatch for email: {}", loginRequest.getEmail());
-                throw new BadCredentialsException("Invalid credentials");
-            }
-            
-            log.debug("Password verified for email: {}", loginRequest.getEmail());
 
-            // Find user by email (primary) or username (fallback for internal users)
-            // The API accepts email, but users may have username != email
-            User user = userRepository.findByEmail(loginRequest.getEmail())
-                    .or(() -> userRepository.findByUsername(loginRequest.getEmail()))
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        // The API accepts email, but internal users may log in with a username != email
+        User user = userRepository.findByLogin(loginRequest.getEmail())
+                .orElseThrow(() -> {
+                    log.warn("User not found for email: {}", loginRequest.getEmail());
+                    return new BadCredentialsException("Invalid credentials");
+                });
+        log.debug("User found in database for email: {}", loginRequest.getEmail());
 
-            log.debug("User entity retrieved for email: {}", loginRequest.getEmail());
-            
-            String token = jwtUtil.generateToken(userDetails.getUsername());
-            log.debug("JWT token generated for user: {}", userDetails.getUsername());
-
-            return new LoginResponse(token, user.getUsername(), user.getEmail(), user.getRole());
-            
-        } catch (UsernameNotFoundException e) {
-            log.warn("User not found for email: {}", loginRequest.getEmail());
+        // BCrypt runs on the bounded hashing pool, not on this request thread
+        PasswordHasher.Verification verification =
+                passwordHasher.verify(loginRequest.getPassword(), user.getPasswordHash());
+        if (!verification.matches()) {
+            log.warn("Password mismatch for email: {}", loginRequest.getEmail());
             throw new BadCredentialsException("Invalid credentials");
-        } catch (Exception e) {
-            log.error("Unexpected error during authentication for email: {}", loginRequest.getEmail(), e);
-            throw e;
         }
+        log.debug("Password verified for email: {}", loginRequest.getEmail());
+
+        if (verification.upgradedHash() != null
+                && userRepository.replacePasswordHash(user.getId(), user.getPasswordHash(), verification.upgradedHash()) == 1) {
+            log.info("Password hash of user {} re-encoded with the configured cost", user.getUsername());
+        }
+
+        String token = jwtUtil.generateToken(user);
+        log.debug("JWT token generated for user: {}", user.getUsername());
+
+        String refreshToken = refreshTokenService.issue(user);
+
+        return new LoginResponse(token, user.getUsername(), user.getEmail(), user.getRole(), refreshToken);
     }
 }
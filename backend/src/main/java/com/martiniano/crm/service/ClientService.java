@@ -1,11 +1,18 @@
 package com.martiniano.crm.service;
 
 import com.martiniano.crm.dto.ClientRequest;
+import com.martiniano.crm.dto.ClientSummary;
+import com.martiniano.crm.dto.CursorPage;
+import com.martiniano.crm.dto.PageCursor;
+import com.martiniano.crm.entity.ActivityEntityType;
 import com.martiniano.crm.entity.Client;
 import com.martiniano.crm.repository.ClientRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,11 +21,17 @@ public class ClientService {
 
     private final ClientRepository clientRepository;
     private final ActivityService activityService;
+    private final KpiCounterService kpiCounterService;
+    private final boolean fullTextSearch;
 
     public ClientService(ClientRepository clientRepository,
-                         ActivityService activityService) {
+                         ActivityService activityService,
+                         KpiCounterService kpiCounterService,
+                         @Value("${app.search.full-text:true}") boolean fullTextSearch) {
         this.clientRepository = clientRepository;
         this.activityService = activityService;
+        this.kpiCounterService = kpiCounterService;
+        this.fullTextSearch = fullTextSearch;
     }
 
     @Transactional
@@ -41,7 +54,7 @@ public class ClientService {
 
         Client savedClient = clientRepository.save(client);
 
-        activityService.logActivity("CLIENT", savedClient.getId(), "CREATED", 
+        activityService.logActivity(ActivityEntityType.CLIENT, savedClient.getId(), "CREATED", 
                 "Client created", null, null);
 
         return savedClient;
@@ -54,18 +67,34 @@ public class ClientService {
     }
 
     @Transactional(readOnly = true)
-    public Page<Client> getAllClients(Pageable pageable) {
-        return clientRepository.findAll(pageable);
+    public Page<ClientSummary> getAllClients(Pageable pageable) {
+        return clientRepository.findSummaries(pageable);
     }
 
     @Transactional(readOnly = true)
-    public Page<Client> searchClients(String search, Pageable pageable) {
-        return clientRepository.searchClients(search, pageable);
+    public CursorPage<ClientSummary> scrollClients(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, CursorPage.clampSize(size));
+        Slice<ClientSummary> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = clientRepository.findFirstSlice(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            slice = clientRepository.findSliceBefore(after.createdAt(), after.id(), limit);
+        }
+        return CursorPage.of(slice, client -> new PageCursor(client.getCreatedAt(), client.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ClientSummary> searchClients(String search, Pageable pageable) {
+        if (!fullTextSearch) {
+            return clientRepository.searchClients(search, pageable);
+        }
+        return clientRepository.searchFullText(search.trim(), SearchTerms.containsPattern(search), SearchTerms.byRank(pageable));
     }
 
     @Transactional(readOnly = true)
-    public Page<Client> getClientsByStatus(String status, Pageable pageable) {
-        return clientRepository.findByStatus(status, pageable);
+    public Page<ClientSummary> getClientsByStatus(String status, Pageable pageable) {
+        return clientRepository.findSummariesByStatus(status, pageable);
     }
 
     @Transactional
@@ -102,7 +131,7 @@ public class ClientService {
 
         Client updatedClient = clientRepository.save(client);
 
-        activityService.logActivity("CLIENT", client.getId(), "UPDATED", 
+        activityService.logActivity(ActivityEntityType.CLIENT, client.getId(), "UPDATED", 
                 "Client information updated", null, null);
 
         return updatedClient;
@@ -111,8 +140,9 @@ public class ClientService {
     @Transactional
     public void deleteClient(Long id) {
         Client client = getClientById(id);
+        kpiCounterService.clientDeleting(id);
         clientRepository.delete(client);
         
-        activityService.logActivity("CLIENT", id, "DELETED", "Client deleted", null, null);
+        activityService.logActivity(ActivityEntityType.CLIENT, id, "DELETED", "Client deleted", null, null);
     }
 }
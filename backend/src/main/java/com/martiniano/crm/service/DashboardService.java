@@ -1,100 +1,133 @@
 package com.martiniano.crm.service;
 
-import com.martiniano.crm.repository.LeadRepository;
-import com.martiniano.crm.repository.ProjectRepository;
+import com.martiniano.crm.config.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Dashboard KPIs are read from the materialized {@code kpi_counters} table
+ * maintained by {@link KpiCounterService}; a dashboard load is a single
+ * primary-key range read, independent of how many leads and projects exist.
+ * Results are cached in {@link CacheConfig#DASHBOARD_KPIS} and evicted after
+ * any transaction that changed a counter commits.
+ */
 @Service
 public class DashboardService {
 
-    private final LeadRepository leadRepository;
-    private final ProjectRepository projectRepository;
+    static final List<String> LEAD_STAGES = List.of(
+            "NEW", "CONTACTED", "QUALIFIED", "PROPOSAL", "NEGOTIATION", "CONVERTED", "LOST");
 
-    public DashboardService(LeadRepository leadRepository,
-                            ProjectRepository projectRepository) {
-        this.leadRepository = leadRepository;
-        this.projectRepository = projectRepository;
+    static final List<String> PROJECT_STATUSES = List.of(
+            "DISCOVERY", "DEVELOPMENT", "IN_PROGRESS", "TESTING", "DEPLOYED", "COMPLETED", "ON_HOLD", "CANCELLED");
+
+    static final List<String> ACTIVE_PROJECT_STATUSES = List.of("IN_PROGRESS", "DISCOVERY", "DEVELOPMENT");
+
+    private static final int RECENT_LEADS_DAYS = 30;
+
+    private final KpiCounterService kpiCounterService;
+
+    public DashboardService(KpiCounterService kpiCounterService) {
+        this.kpiCounterService = kpiCounterService;
     }
 
+    @Cacheable(cacheNames = CacheConfig.DASHBOARD_KPIS, key = "#root.methodName")
     @Transactional(readOnly = true)
     public Map<String, Object> getDashboardKPIs() {
+        Map<String, Map<String, Long>> snapshot = kpiCounterService.snapshot();
+        Map<String, Long> leadRows = snapshot.get(KpiCounterService.LEAD_STAGE);
+        Map<String, Long> projectRows = snapshot.get(KpiCounterService.PROJECT_STATUS);
+
         Map<String, Object> kpis = new HashMap<>();
+        kpis.put("leadCounts", leadCountsByStage(leadRows));
+        kpis.put("conversionMetrics", conversionMetrics(leadRows, snapshot.get(KpiCounterService.LEAD_CREATED_DAY)));
+        kpis.put("activeProjects", activeProjectsCount(projectRows));
+        kpis.put("projectCounts", projectCountsByStatus(projectRows));
+        return kpis;
+    }
 
-        Map<String, Long> leadCounts = getLeadCountsByStage();
-        kpis.put("leadCounts", leadCounts);
+    @Cacheable(cacheNames = CacheConfig.DASHBOARD_KPIS, key = "#root.methodName")
+    @Transactional(readOnly = true)
+    public Map<String, Long> getLeadCountsByStage() {
+        return leadCountsByStage(kpiCounterService.snapshot().get(KpiCounterService.LEAD_STAGE));
+    }
 
-        Map<String, Object> conversionMetrics = getConversionMetrics();
-        kpis.put("conversionMetrics", conversionMetrics);
+    @Cacheable(cacheNames = CacheConfig.DASHBOARD_KPIS, key = "#root.methodName")
+    @Transactional(readOnly = true)
+    public Map<String, Object> getConversionMetrics() {
+        Map<String, Map<String, Long>> snapshot = kpiCounterService.snapshot();
+        return conversionMetrics(snapshot.get(KpiCounterService.LEAD_STAGE),
+                snapshot.get(KpiCounterService.LEAD_CREATED_DAY));
+    }
 
-        long activeProjects = getActiveProjectsCount();
-        kpis.put("activeProjects", activeProjects);
+    @Cacheable(cacheNames = CacheConfig.DASHBOARD_KPIS, key = "#root.methodName")
+    @Transactional(readOnly = true)
+    public long getActiveProjectsCount() {
+        return activeProjectsCount(kpiCounterService.snapshot().get(KpiCounterService.PROJECT_STATUS));
+    }
 
-        Map<String, Long> projectCounts = getProjectCountsByStatus();
-        kpis.put("projectCounts", projectCounts);
+    @Cacheable(cacheNames = CacheConfig.DASHBOARD_KPIS, key = "#root.methodName")
+    @Transactional(readOnly = true)
+    public Map<String, Long> getProjectCountsByStatus() {
+        return projectCountsByStatus(kpiCounterService.snapshot().get(KpiCounterService.PROJECT_STATUS));
+    }
 
-        return kpis;
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @CacheEvict(cacheNames = CacheConfig.DASHBOARD_KPIS, allEntries = true)
+    public void onKpiCountersChanged(KpiCountersChangedEvent event) {
     }
 
-    @Transactional(readOnly = true)
-    public Map<String, Long> getLeadCountsByStage() {
+    private Map<String, Long> leadCountsByStage(Map<String, Long> rows) {
         Map<String, Long> counts = new HashMap<>();
-        counts.put("NEW", leadRepository.countByStage("NEW"));
-        counts.put("CONTACTED", leadRepository.countByStage("CONTACTED"));
-        counts.put("QUALIFIED", leadRepository.countByStage("QUALIFIED"));
-        counts.put("PROPOSAL", leadRepository.countByStage("PROPOSAL"));
-        counts.put("NEGOTIATION", leadRepository.countByStage("NEGOTIATION"));
-        counts.put("CONVERTED", leadRepository.countByStage("CONVERTED"));
-        counts.put("LOST", leadRepository.countByStage("LOST"));
+        LEAD_STAGES.forEach(stage -> counts.put(stage, 0L));
+        counts.putAll(rows);
         return counts;
     }
 
-    @Transactional(readOnly = true)
-    public Map<String, Object> getConversionMetrics() {
-        Map<String, Object> metrics = new HashMap<>();
+    private Map<String, Object> conversionMetrics(Map<String, Long> stageRows, Map<String, Long> dayRows) {
+        long totalLeads = stageRows.values().stream().mapToLong(Long::longValue).sum();
+        long convertedLeads = stageRows.getOrDefault("CONVERTED", 0L);
+        long lostLeads = stageRows.getOrDefault("LOST", 0L);
 
-        long totalLeads = leadRepository.count();
-        long convertedLeads = leadRepository.countByStage("CONVERTED");
-        long lostLeads = leadRepository.countByStage("LOST");
+        String since = LocalDate.now().minusDays(RECENT_LEADS_DAYS).toString();
+        long recentLeads = dayRows.entrySet().stream()
+                .filter(entry -> entry.getKey().compareTo(since) >= 0)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
 
         double conversionRate = totalLeads > 0 ? (double) convertedLeads / totalLeads * 100 : 0.0;
         double lossRate = totalLeads > 0 ? (double) lostLeads / totalLeads * 100 : 0.0;
 
+        Map<String, Object> metrics = new HashMap<>();
         metrics.put("totalLeads", totalLeads);
         metrics.put("convertedLeads", convertedLeads);
         metrics.put("lostLeads", lostLeads);
         metrics.put("conversionRate", Math.round(conversionRate * 100.0) / 100.0);
         metrics.put("lossRate", Math.round(lossRate * 100.0) / 100.0);
-
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        long recentLeads = leadRepository.countByCreatedAtAfter(thirtyDaysAgo);
         metrics.put("recentLeads", recentLeads);
-
         return metrics;
     }
 
-    @Transactional(readOnly = true)
-    public long getActiveProjectsCount() {
-        return projectRepository.countByStatus("IN_PROGRESS") + 
-               projectRepository.countByStatus("DISCOVERY") +
-               projectRepository.countByStatus("DEVELOPMENT");
+    private long activeProjectsCount(Map<String, Long> rows) {
+        return ACTIVE_PROJECT_STATUSES.stream()
+                .mapToLong(status -> rows.getOrDefault(status, 0L))
+                .sum();
     }
 
-    @Transactional(readOnly = true)
-    public Map<String, Long> getProjectCountsByStatus() {
+    private Map<String, Long> projectCountsByStatus(Map<String, Long> rows) {
         Map<String, Long> counts = new HashMap<>();
-        counts.put("DISCOVERY", projectRepository.countByStatus("DISCOVERY"));
-        counts.put("DEVELOPMENT", projectRepository.countByStatus("DEVELOPMENT"));
-        counts.put("IN_PROGRESS", projectRepository.countByStatus("IN_PROGRESS"));
-        counts.put("TESTING", projectRepository.countByStatus("TESTING"));
-        counts.put("DEPLOYED", projectRepository.countByStatus("DEPLOYED"));
-        counts.put("COMPLETED", projectRepository.countByStatus("COMPLETED"));
-        counts.put("ON_HOLD", projectRepository.countByStatus("ON_HOLD"));
-        counts.put("CANCELLED", projectRepository.countByStatus("CANCELLED"));
+        PROJECT_STATUSES.forEach(status -> counts.put(status, 0L));
+        counts.putAll(rows);
         return counts;
     }
 }
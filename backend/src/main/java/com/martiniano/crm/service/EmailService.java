@@ -1,33 +1,86 @@
 package com.martiniano.crm.service;
 
+import com.martiniano.crm.entity.Notification;
+import com.martiniano.crm.entity.Reminder;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.NotificationRepository;
+import com.martiniano.crm.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Composes outbound emails and records them in the {@code notifications} outbox.
+ * Nothing here talks to SMTP: delivery happens in {@link NotificationDispatcher}
+ * after the surrounding transaction commits.
+ */
 @Service
 public class EmailService {
 
-  private final JavaMailSender mailSender;
-  
+  public static final String CONTACT_EMAIL = "CONTACT_EMAIL";
+  public static final String REMINDER_EMAIL = "REMINDER_EMAIL";
+
+  private final NotificationRepository notificationRepository;
+  private final NotificationDispatcher notificationDispatcher;
+  private final UserRepository userRepository;
+
   @Value("${app.contact.recipient}")
   private String contactRecipient;
 
-  public EmailService(JavaMailSender mailSender) {
-    this.mailSender = mailSender;
+  public EmailService(NotificationRepository notificationRepository,
+                      NotificationDispatcher notificationDispatcher,
+                      UserRepository userRepository) {
+    this.notificationRepository = notificationRepository;
+    this.notificationDispatcher = notificationDispatcher;
+    this.userRepository = userRepository;
+  }
+
+  @Transactional
+  public Notification sendContactEmail(String name, String email, String message) {
+    Notification notification = new Notification();
+    notification.setType(CONTACT_EMAIL);
+    notification.setRecipient(contactRecipient);
+    notification.setReplyTo(email);
+    notification.setSubject("Nuevo contacto desde portfolio - " + name);
+    notification.setBody("Nombre: " + name + "\nEmail: " + email + "\n\nMensaje:\n" + message);
+
+    Notification saved = notificationRepository.save(notification);
+    notificationDispatcher.dispatchAfterCommit(saved);
+    return saved;
   }
 
-  public void sendContactEmail(String name, String email, String message) {
-    try {
-      SimpleMailMessage msg = new SimpleMailMessage();
-      msg.setTo(contactRecipient);
-      msg.setReplyTo(email);
-      msg.setSubject("Nuevo contacto desde portfolio - " + name);
-      msg.setText("Nombre: " + name + "\nEmail: " + email + "\n\nMensaje:\n" + message);
-      mailSender.send(msg);
-    } catch (Exception e) {
-      // Log but don't fail - email is optional feature
-      System.err.println("Failed to send email: " + e.getMessage());
+  /**
+   * Queues one email per reminder to the user who created it, falling back to the
+   * contact recipient when that user no longer exists. Creators are loaded with a
+   * single query and the notifications are inserted as one batch.
+   */
+  @Transactional
+  public List<Notification> sendReminderEmails(List<Reminder> reminders) {
+    Map<Long, String> emails = userRepository.findAllById(reminders.stream().map(Reminder::getCreatedBy).distinct().toList())
+        .stream()
+        .collect(Collectors.toMap(User::getId, User::getEmail));
+
+    List<Notification> notifications = reminders.stream().map(reminder -> {
+      Notification notification = new Notification();
+      notification.setType(REMINDER_EMAIL);
+      notification.setRecipient(emails.getOrDefault(reminder.getCreatedBy(), contactRecipient));
+      notification.setSubject("Recordatorio: " + reminder.getTitle());
+      notification.setBody(reminder.getTitle()
+          + "\nVence: " + reminder.getDueAt()
+          + "\nReferencia: " + reminder.getEntityType() + " #" + reminder.getEntityId()
+          + (reminder.getDescription() != null ? "\n\n" + reminder.getDescription() : ""));
+      return notification;
+    }).toList();
+
+    List<Notification> saved = notificationRepository.saveAll(notifications);
+    if (!saved.isEmpty()) {
+      // Drains are coalesced, so one trigger covers the whole batch
+      notificationDispatcher.dispatchAfterCommit(saved.get(0));
     }
+    return saved;
   }
 }
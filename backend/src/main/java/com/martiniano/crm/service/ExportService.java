@@ -0,0 +1,239 @@
+package com.martiniano.crm.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Streams whole tables as CSV or NDJSON for bulk consumers (BI pulls).
+ *
+ * Rows are read through a forward-only JDBC cursor ({@code fetch-size} rows per
+ * round trip) inside a read-only transaction, which PostgreSQL requires for the
+ * fetch size to take effect, and each row is written to the output as soon as it
+ * is read. Memory use is bounded by the fetch size, not the table size. No entities
+ * are loaded and no {@code COUNT(*)} is issued.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new UnsupportedFormatException(value);
+            }
+        }
+    }
+
+    /** Exported tables; field names match the JSON properties of the list endpoints. */
+    public enum Dataset {
+        LEADS("leads",
+                new Field("id", "id"),
+                new Field("name", "name"),
+                new Field("email", "email"),
+                new Field("phone", "phone"),
+                new Field("company", "company"),
+                new Field("budgetRange", "budget_range"),
+                new Field("projectType", "project_type"),
+                new Field("source", "source"),
+                new Field("stage", "stage"),
+                new Field("priority", "priority"),
+                new Field("assignedToId", "assigned_to"),
+                new Field("createdAt", "created_at"),
+                new Field("updatedAt", "updated_at")),
+        CLIENTS("clients",
+                new Field("id", "id"),
+                new Field("name", "name"),
+                new Field("company", "company"),
+                new Field("primaryContactName", "primary_contact_name"),
+                new Field("email", "email"),
+                new Field("phone", "phone"),
+                new Field("status", "status"),
+                new Field("tags", "tags"),
+                new Field("createdFromLeadId", "created_from_lead_id"),
+                new Field("createdAt", "created_at"),
+                new Field("updatedAt", "updated_at")),
+        PROJECTS("projects",
+                new Field("id", "id"),
+                new Field("clientId", "client_id"),
+                new Field("name", "name"),
+                new Field("status", "status"),
+                new Field("startDate", "start_date"),
+                new Field("targetDate", "target_date"),
+                new Field("completionDate", "completion_date"),
+                new Field("stack", "stack"),
+                new Field("estimatedHours", "estimated_hours"),
+                new Field("actualHours", "actual_hours"),
+                new Field("budgetAmount", "budget_amount"),
+                new Field("createdAt", "created_at"),
+                new Field("updatedAt", "updated_at"));
+
+        private final String table;
+        private final List<Field> fields;
+        private final String sql;
+
+        Dataset(String table, Field... fields) {
+            this.table = table;
+            this.fields = List.of(fields);
+            this.sql = "SELECT " + this.fields.stream().map(Field::column).collect(Collectors.joining(", ")) +
+                    " FROM " + table + " ORDER BY id";
+        }
+
+        public String getTable() {
+            return table;
+        }
+    }
+
+    private record Field(String name, String column) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(Dataset dataset, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            if (format == Format.CSV) {
+                exportCsv(dataset, writer);
+            } else {
+                exportNdjson(dataset, writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void exportCsv(Dataset dataset, Writer writer) throws IOException {
+        writer.write(dataset.fields.stream().map(Field::name).collect(Collectors.joining(",")));
+        writer.write("\r\n");
+        stream(dataset, rs -> {
+            for (int i = 0; i < dataset.fields.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = value(rs, i + 1);
+                if (value != null) {
+                    writer.write(csvEscape(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        });
+    }
+
+    private void exportNdjson(Dataset dataset, Writer writer) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows end with our own newline; the default separator would prefix each later row with a space
+            generator.setRootValueSeparator(null);
+            stream(dataset, rs -> {
+                generator.writeStartObject();
+                for (int i = 0; i < dataset.fields.size(); i++) {
+                    Object value = value(rs, i + 1);
+                    generator.writeFieldName(dataset.fields.get(i).name());
+                    if (value instanceof String text) {
+                        generator.writeString(text);
+                    } else {
+                        generator.writeObject(value);
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    private void stream(Dataset dataset, RowWriter rowWriter) {
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(dataset.sql, (RowCallbackHandler) rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    /** Dates and timestamps as ISO-8601 strings, matching the JSON API. */
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate().toString();
+        }
+        return value;
+    }
+
+    static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    public static class UnsupportedFormatException extends RuntimeException {
+        public UnsupportedFormatException(String format) {
+            super("Unsupported export format: " + format);
+        }
+    }
+}
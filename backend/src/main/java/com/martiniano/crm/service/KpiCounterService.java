@@ -0,0 +1,309 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.dto.LeadDayCount;
+import com.martiniano.crm.dto.LeadStageCount;
+import com.martiniano.crm.dto.ProjectStatusCount;
+import com.martiniano.crm.entity.KpiCounter;
+import com.martiniano.crm.entity.Lead;
+import com.martiniano.crm.repository.KpiCounterRepository;
+import com.martiniano.crm.repository.LeadRepository;
+import com.martiniano.crm.repository.ProjectRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the materialized {@code kpi_counters} table.
+ *
+ * Write paths call the {@code lead*}/{@code project*} hooks inside their own
+ * transaction, so counters commit or roll back together with the change. The hooks
+ * only collect deltas; they are written just before commit, after the session has
+ * flushed, so the hot counter rows stay locked for the commit alone rather than
+ * for the whole request. Concurrent writers of the same stage or day therefore
+ * queue on the counters only briefly.
+ * Writes the hooks cannot see (database cascades, manual SQL) are corrected
+ * by {@link #reconcile()}, which recounts the source tables on a fixed delay.
+ * Every change publishes a {@link KpiCountersChangedEvent} so read-side caches
+ * can be evicted once the transaction commits.
+ */
+@Service
+public class KpiCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(KpiCounterService.class);
+
+    public static final String LEAD_STAGE = "LEAD_STAGE";
+    public static final String LEAD_CREATED_DAY = "LEAD_CREATED_DAY";
+    public static final String PROJECT_STATUS = "PROJECT_STATUS";
+
+    /** Daily buckets kept for the "recent leads" window (30 days plus today). */
+    static final int CREATED_DAY_RETENTION = 31;
+
+    private static final int MAX_UPSERT_ATTEMPTS = 3;
+
+    /** Lock order for counter rows; every transaction writes its deltas in this order. */
+    private static final Comparator<KpiCounter.Key> KEY_ORDER =
+            Comparator.comparing(KpiCounter.Key::getMetric).thenComparing(KpiCounter.Key::getDimension);
+
+    private final KpiCounterRepository kpiCounterRepository;
+    private final LeadRepository leadRepository;
+    private final ProjectRepository projectRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final boolean postgres;
+    private final String upsertSql;
+    private final Object pendingDeltasKey = new Object();
+
+    public KpiCounterService(KpiCounterRepository kpiCounterRepository,
+                             LeadRepository leadRepository,
+                             ProjectRepository projectRepository,
+                             JdbcTemplate jdbcTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             EntityManager entityManager,
+                             EntityManagerFactory entityManagerFactory) {
+        this.kpiCounterRepository = kpiCounterRepository;
+        this.leadRepository = leadRepository;
+        this.projectRepository = projectRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        this.upsertSql = postgres
+                ? "INSERT INTO kpi_counters (metric, dimension, counter_value, updated_at) VALUES (?, ?, ?, ?) " +
+                  "ON CONFLICT (metric, dimension) DO UPDATE " +
+                  "SET counter_value = kpi_counters.counter_value + EXCLUDED.counter_value, updated_at = EXCLUDED.updated_at"
+                : "MERGE INTO kpi_counters c USING (VALUES (CAST(? AS VARCHAR(50)), CAST(? AS VARCHAR(50)), " +
+                  "CAST(? AS BIGINT), CAST(? AS TIMESTAMP))) AS s(metric, dimension, delta, updated_at) " +
+                  "ON c.metric = s.metric AND c.dimension = s.dimension " +
+                  "WHEN MATCHED THEN UPDATE SET counter_value = c.counter_value + s.delta, updated_at = s.updated_at " +
+                  "WHEN NOT MATCHED THEN INSERT (metric, dimension, counter_value, updated_at) " +
+                  "VALUES (s.metric, s.dimension, s.delta, s.updated_at)";
+    }
+
+    @Transactional
+    public void leadCreated(Lead lead) {
+        apply(LEAD_STAGE, lead.getStage(), 1);
+        apply(LEAD_CREATED_DAY, lead.getCreatedAt().toLocalDate().toString(), 1);
+    }
+
+    /**
+     * Bulk variant of {@link #leadCreated(Lead)}: one counter update per distinct
+     * stage and created day rather than two per lead, applied in dimension order so
+     * concurrent imports lock counter rows in the same sequence.
+     */
+    @Transactional
+    public void leadsCreated(Collection<Lead> leads) {
+        Map<String, Long> byStage = new TreeMap<>();
+        Map<String, Long> byDay = new TreeMap<>();
+        for (Lead lead : leads) {
+            byStage.merge(lead.getStage(), 1L, Long::sum);
+            byDay.merge(lead.getCreatedAt().toLocalDate().toString(), 1L, Long::sum);
+        }
+        byStage.forEach((stage, delta) -> apply(LEAD_STAGE, stage, delta));
+        byDay.forEach((day, delta) -> apply(LEAD_CREATED_DAY, day, delta));
+    }
+
+    @Transactional
+    public void leadStageChanged(String oldStage, String newStage) {
+        move(LEAD_STAGE, oldStage, newStage);
+    }
+
+    @Transactional
+    public void leadDeleted(Lead lead) {
+        apply(LEAD_STAGE, lead.getStage(), -1);
+        LocalDate createdDay = lead.getCreatedAt().toLocalDate();
+        if (!createdDay.isBefore(oldestCreatedDay())) {
+            apply(LEAD_CREATED_DAY, createdDay.toString(), -1);
+        }
+    }
+
+    @Transactional
+    public void projectCreated(String status) {
+        apply(PROJECT_STATUS, status, 1);
+    }
+
+    @Transactional
+    public void projectStatusChanged(String oldStatus, String newStatus) {
+        move(PROJECT_STATUS, oldStatus, newStatus);
+    }
+
+    @Transactional
+    public void projectDeleted(String status) {
+        apply(PROJECT_STATUS, status, -1);
+    }
+
+    /**
+     * Projects removed by the {@code ON DELETE CASCADE} on {@code projects.client_id}
+     * never pass through {@link ProjectService}; subtract them before the client goes.
+     */
+    @Transactional
+    public void clientDeleting(Long clientId) {
+        for (ProjectStatusCount row : projectRepository.countGroupedByStatusForClient(clientId)) {
+            apply(PROJECT_STATUS, row.getStatus(), -row.getTotal());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Map<String, Long>> snapshot() {
+        Map<String, Map<String, Long>> snapshot = new HashMap<>();
+        snapshot.put(LEAD_STAGE, new HashMap<>());
+        snapshot.put(LEAD_CREATED_DAY, new HashMap<>());
+        snapshot.put(PROJECT_STATUS, new HashMap<>());
+        for (KpiCounter counter : kpiCounterRepository.findByMetricIn(snapshot.keySet())) {
+            snapshot.get(counter.getMetric()).put(counter.getDimension(), counter.getValue());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Recounts every metric from the source tables and overwrites drifted counters.
+     * Existing counter rows are locked before counting, so a concurrent write either
+     * commits before the recount sees it or applies its delta on top of the result.
+     */
+    @Scheduled(fixedDelayString = "${app.kpi.reconcile-interval:900000}",
+               initialDelayString = "${app.kpi.reconcile-initial-delay:60000}")
+    @Transactional
+    public void reconcile() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate oldestDay = oldestCreatedDay();
+        Map<KpiCounter.Key, KpiCounter> existing = new HashMap<>();
+        kpiCounterRepository.lockByMetricIn(List.of(LEAD_CREATED_DAY, LEAD_STAGE, PROJECT_STATUS))
+                .forEach(counter -> existing.put(new KpiCounter.Key(counter.getMetric(), counter.getDimension()), counter));
+
+        Map<KpiCounter.Key, Long> actual = new HashMap<>();
+        for (LeadStageCount row : leadRepository.countGroupedByStage(now)) {
+            actual.put(new KpiCounter.Key(LEAD_STAGE, row.getStage()), row.getTotal());
+        }
+        for (LeadDayCount row : leadRepository.countGroupedByCreatedDate(oldestDay.atStartOfDay())) {
+            actual.put(new KpiCounter.Key(LEAD_CREATED_DAY, row.getCreatedDate().toString()), row.getTotal());
+        }
+        for (ProjectStatusCount row : projectRepository.countGroupedByStatus()) {
+            actual.put(new KpiCounter.Key(PROJECT_STATUS, row.getStatus()), row.getTotal());
+        }
+
+        int corrected = 0;
+        for (KpiCounter counter : existing.values()) {
+            long expected = actual.getOrDefault(new KpiCounter.Key(counter.getMetric(), counter.getDimension()), 0L);
+            if (counter.getValue() != expected) {
+                counter.setValue(expected);
+                counter.setUpdatedAt(now);
+                corrected++;
+            }
+        }
+        for (Map.Entry<KpiCounter.Key, Long> entry : actual.entrySet()) {
+            if (!existing.containsKey(entry.getKey())) {
+                KpiCounter.Key key = entry.getKey();
+                kpiCounterRepository.save(new KpiCounter(key.getMetric(), key.getDimension(), entry.getValue(), now));
+                corrected++;
+            }
+        }
+        kpiCounterRepository.deleteByMetricAndDimensionBefore(LEAD_CREATED_DAY, oldestDay.toString());
+
+        if (corrected > 0) {
+            log.info("KPI reconcile corrected {} counter(s)", corrected);
+            eventPublisher.publishEvent(new KpiCountersChangedEvent(null));
+        }
+    }
+
+    static LocalDate oldestCreatedDay() {
+        return LocalDate.now().minusDays(CREATED_DAY_RETENTION - 1);
+    }
+
+    /**
+     * Applies both halves of a move in dimension order, so concurrent moves
+     * in opposite directions lock the same rows in the same sequence.
+     */
+    private void move(String metric, String from, String to) {
+        if (from == null || from.equals(to)) {
+            return;
+        }
+        if (from.compareTo(to) < 0) {
+            apply(metric, from, -1);
+            apply(metric, to, 1);
+        } else {
+            apply(metric, to, 1);
+            apply(metric, from, -1);
+        }
+    }
+
+    private void apply(String metric, String dimension, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingDeltas().merge(new KpiCounter.Key(metric, dimension), delta, Long::sum);
+        } else {
+            write(metric, dimension, delta);
+        }
+        eventPublisher.publishEvent(new KpiCountersChangedEvent(metric));
+    }
+
+    /** Deltas collected by the current transaction, written by its {@code beforeCommit}. */
+    @SuppressWarnings("unchecked")
+    private Map<KpiCounter.Key, Long> pendingDeltas() {
+        Map<KpiCounter.Key, Long> deltas = (Map<KpiCounter.Key, Long>) TransactionSynchronizationManager.getResource(pendingDeltasKey);
+        if (deltas != null) {
+            return deltas;
+        }
+        Map<KpiCounter.Key, Long> created = new TreeMap<>(KEY_ORDER);
+        TransactionSynchronizationManager.bindResource(pendingDeltasKey, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Flush the rest of the unit of work first so no other statement runs
+                // while the counter rows are locked
+                entityManager.flush();
+                created.forEach((key, delta) -> {
+                    if (delta != 0) {
+                        write(key.getMetric(), key.getDimension(), delta);
+                    }
+                });
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(pendingDeltasKey);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * One atomic upsert per delta, so concurrent first writes of a counter (the first
+     * leads of a day) neither collide on the primary key nor lose an increment. H2's
+     * MERGE can still hit the key when another transaction inserted the row first;
+     * H2 rolls back only that statement, and the rerun then updates the row.
+     */
+    private void write(String metric, String dimension, long delta) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.update(upsertSql, metric, dimension, delta, now);
+                return;
+            } catch (DuplicateKeyException e) {
+                if (postgres || attempt == MAX_UPSERT_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
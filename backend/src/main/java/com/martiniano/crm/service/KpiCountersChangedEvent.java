@@ -0,0 +1,8 @@
+package com.martiniano.crm.service;
+
+/**
+ * Published by {@link KpiCounterService} whenever a counter changes. Listeners
+ * bound to {@code AFTER_COMMIT} only see changes that actually committed.
+ */
+public record KpiCountersChangedEvent(String metric) {
+}
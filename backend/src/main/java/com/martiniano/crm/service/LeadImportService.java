@@ -0,0 +1,296 @@
+package com.martiniano.crm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.martiniano.crm.dto.LeadCreateRequest;
+import com.martiniano.crm.dto.LeadImportResult;
+import com.martiniano.crm.entity.Activity;
+import com.martiniano.crm.entity.ActivityEntityType;
+import com.martiniano.crm.entity.ActivityPayload;
+import com.martiniano.crm.entity.Lead;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Bulk lead import from CSV or NDJSON.
+ *
+ * The input is read one row at a time and validated against the
+ * {@link LeadCreateRequest} constraints. Valid rows are written in chunks of
+ * {@code chunk-size}, each in its own transaction: leads go out as one JDBC batch
+ * (ids come from the pooled {@code leads_id_seq}), their CREATED activities as a
+ * second batch, and KPI counters with one update per stage and day. Imported leads
+ * do not trigger contact emails. A chunk the database rejects is split in halves
+ * and retried, so only the rows that fail on their own are reported and the rest
+ * of the chunk is still imported.
+ */
+@Service
+public class LeadImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeadImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    static final String DEFAULT_SOURCE = "import";
+
+    /** CSV header names, lower-cased with separators removed, mapped to request fields. */
+    private static final Map<String, BiConsumer<LeadCreateRequest, String>> COLUMNS = Map.of(
+            "name", LeadCreateRequest::setName,
+            "email", LeadCreateRequest::setEmail,
+            "phone", LeadCreateRequest::setPhone,
+            "company", LeadCreateRequest::setCompany,
+            "budgetrange", LeadCreateRequest::setBudgetRange,
+            "projecttype", LeadCreateRequest::setProjectType,
+            "message", LeadCreateRequest::setMessage,
+            "source", LeadCreateRequest::setSource);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final ActivityService activityService;
+    private final KpiCounterService kpiCounterService;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public LeadImportService(EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             ActivityService activityService,
+                             KpiCounterService kpiCounterService,
+                             @Value("${app.leads.import.chunk-size:500}") int chunkSize,
+                             @Value("${app.leads.import.max-errors:1000}") int maxErrors) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(LeadCreateRequest.class);
+        this.activityService = activityService;
+        this.kpiCounterService = kpiCounterService;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public LeadImportResult importLeads(Reader input, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(input);
+        RowSource rows = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+        LeadImportResult result = new LeadImportResult();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+
+        ParsedRow row;
+        while ((row = rows.next()) != null) {
+            List<String> errors = row.errors() != null ? row.errors() : validate(row.request());
+            if (!errors.isEmpty()) {
+                reject(result, row.row(), errors);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, result);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the rows in one transaction. If the database rejects it, each half is
+     * retried on its own until the failing rows are isolated: a few bad rows cost a
+     * logarithmic number of extra transactions rather than one per row.
+     */
+    private void writeChunk(List<ParsedRow> chunk, LeadImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(chunk.size());
+                List<Lead> leads = new ArrayList<>(chunk.size());
+                for (ParsedRow row : chunk) {
+                    Lead lead = toLead(row.request());
+                    entityManager.persist(lead);
+                    leads.add(lead);
+                }
+                entityManager.flush();
+                activityService.logActivities(leads.stream().map(this::createdActivity).toList());
+                kpiCounterService.leadsCreated(leads);
+            });
+            result.setImported(result.getImported() + chunk.size());
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            if (chunk.size() == 1) {
+                log.warn("Lead import row {} rejected: {}", chunk.get(0).row(), e.getMessage());
+                reject(result, chunk.get(0).row(), List.of("Rejected by database: " + rootCause(e).getMessage()));
+                return;
+            }
+            log.debug("Lead import chunk of {} rows starting at row {} rejected, retrying in halves: {}",
+                    chunk.size(), chunk.get(0).row(), e.getMessage());
+            int half = chunk.size() / 2;
+            writeChunk(chunk.subList(0, half), result);
+            writeChunk(chunk.subList(half, chunk.size()), result);
+        }
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private List<String> validate(LeadCreateRequest request) {
+        return validator.validate(request).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private void reject(LeadImportResult result, long row, List<String> errors) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new LeadImportResult.RowError(row, errors));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private Lead toLead(LeadCreateRequest request) {
+        Lead lead = new Lead();
+        lead.setName(request.getName());
+        lead.setEmail(request.getEmail());
+        lead.setPhone(request.getPhone());
+        lead.setCompany(request.getCompany());
+        lead.setBudgetRange(request.getBudgetRange());
+        lead.setProjectType(request.getProjectType());
+        lead.setMessage(request.getMessage());
+        lead.setSource(request.getSource() == null || request.getSource().isBlank()
+                ? DEFAULT_SOURCE : request.getSource());
+        lead.setStage("NEW");
+        lead.setPriority("MEDIUM");
+        return lead;
+    }
+
+    private Activity createdActivity(Lead lead) {
+        Activity activity = new Activity();
+        activity.setEntityType(ActivityEntityType.LEAD);
+        activity.setEntityId(lead.getId());
+        activity.setActivityType("CREATED");
+        activity.setDescription("Lead imported from " + lead.getSource());
+        activity.setPayload(new ActivityPayload.Created(lead.getSource()));
+        return activity;
+    }
+
+    /** A request without the {@code web} source default, so unset sources become {@link #DEFAULT_SOURCE}. */
+    private static LeadCreateRequest emptyRequest() {
+        LeadCreateRequest request = new LeadCreateRequest();
+        request.setSource(null);
+        return request;
+    }
+
+    /** A parsed input row; {@code errors} is set when the row could not be parsed at all. */
+    private record ParsedRow(long row, LeadCreateRequest request, List<String> errors) {
+    }
+
+    private interface RowSource {
+        /** Returns the next row, or {@code null} at end of input. */
+        ParsedRow next() throws IOException;
+    }
+
+    private static final class CsvRows implements RowSource {
+
+        private final CsvRowReader reader;
+        private List<BiConsumer<LeadCreateRequest, String>> setters;
+        private long row;
+
+        CsvRows(Reader reader) {
+            this.reader = new CsvRowReader(reader);
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            if (setters == null && !readHeader()) {
+                return null;
+            }
+            List<String> fields;
+            try {
+                fields = reader.next();
+            } catch (CsvRowReader.MalformedRowException e) {
+                return new ParsedRow(++row, null, List.of(e.getMessage()));
+            }
+            if (fields == null) {
+                return null;
+            }
+            LeadCreateRequest request = emptyRequest();
+            for (int i = 0; i < Math.min(fields.size(), setters.size()); i++) {
+                String value = fields.get(i).trim();
+                if (setters.get(i) != null && !value.isEmpty()) {
+                    setters.get(i).accept(request, value);
+                }
+            }
+            return new ParsedRow(++row, request, null);
+        }
+
+        private boolean readHeader() throws IOException {
+            List<String> header = reader.next();
+            if (header == null) {
+                return false;
+            }
+            setters = new ArrayList<>(header.size());
+            for (String column : header) {
+                String key = column.replace("\uFEFF", "").toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+                setters.add(COLUMNS.get(key));
+            }
+            return true;
+        }
+    }
+
+    private final class NdjsonRows implements RowSource {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+            try {
+                LeadCreateRequest request = requestReader.withValueToUpdate(emptyRequest()).readValue(text);
+                if (request == null) {
+                    return new ParsedRow(line, null, List.of("Expected a JSON object"));
+                }
+                return new ParsedRow(line, request, null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line, null, List.of("Malformed JSON: " + e.getOriginalMessage()));
+            }
+        }
+    }
+}
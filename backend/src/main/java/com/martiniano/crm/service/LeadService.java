@@ -1,20 +1,26 @@
 package com.martiniano.crm.service;
 
+import com.martiniano.crm.dto.CursorPage;
 import com.martiniano.crm.dto.LeadCreateRequest;
+import com.martiniano.crm.dto.LeadSummary;
 import com.martiniano.crm.dto.LeadUpdateRequest;
+import com.martiniano.crm.dto.PageCursor;
+import com.martiniano.crm.entity.ActivityEntityType;
+import com.martiniano.crm.entity.ActivityPayload;
 import com.martiniano.crm.entity.Lead;
 import com.martiniano.crm.entity.User;
 import com.martiniano.crm.repository.LeadRepository;
 import com.martiniano.crm.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Service
 public class LeadService {
@@ -23,15 +29,21 @@ public class LeadService {
     private final UserRepository userRepository;
     private final ActivityService activityService;
     private final EmailService emailService;
+    private final KpiCounterService kpiCounterService;
+    private final boolean fullTextSearch;
 
     public LeadService(LeadRepository leadRepository,
                        UserRepository userRepository,
                        ActivityService activityService,
-                       EmailService emailService) {
+                       EmailService emailService,
+                       KpiCounterService kpiCounterService,
+                       @Value("${app.search.full-text:true}") boolean fullTextSearch) {
         this.leadRepository = leadRepository;
         this.userRepository = userRepository;
         this.activityService = activityService;
         this.emailService = emailService;
+        this.kpiCounterService = kpiCounterService;
+        this.fullTextSearch = fullTextSearch;
     }
 
     @Transactional
@@ -49,11 +61,13 @@ public class LeadService {
         lead.setPriority("MEDIUM");
 
         Lead savedLead = leadRepository.save(lead);
+        kpiCounterService.leadCreated(savedLead);
 
-        activityService.logActivity("LEAD", savedLead.getId(), "CREATED", 
-                "Lead created from " + request.getSource(), null, null);
+        activityService.logActivity(ActivityEntityType.LEAD, savedLead.getId(), "CREATED", 
+                "Lead created from " + request.getSource(),
+                new ActivityPayload.Created(request.getSource()), null);
         
-        // Send notification email
+        // Queue notification email; delivered after commit
         emailService.sendContactEmail(request.getName(), request.getEmail(), request.getMessage());
 
         return savedLead;
@@ -61,23 +75,39 @@ public class LeadService {
 
     @Transactional(readOnly = true)
     public Lead getLeadById(Long id) {
-        return leadRepository.findById(id)
+        return leadRepository.findWithAssigneeById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Lead not found with id: " + id));
     }
 
     @Transactional(readOnly = true)
-    public Page<Lead> getAllLeads(Pageable pageable) {
-        return leadRepository.findAll(pageable);
+    public Page<LeadSummary> getAllLeads(Pageable pageable) {
+        return leadRepository.findSummaries(pageable);
     }
 
     @Transactional(readOnly = true)
-    public Page<Lead> searchLeads(String search, Pageable pageable) {
-        return leadRepository.searchLeads(search, pageable);
+    public CursorPage<LeadSummary> scrollLeads(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, CursorPage.clampSize(size));
+        Slice<LeadSummary> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = leadRepository.findFirstSlice(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            slice = leadRepository.findSliceBefore(after.createdAt(), after.id(), limit);
+        }
+        return CursorPage.of(slice, lead -> new PageCursor(lead.getCreatedAt(), lead.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<LeadSummary> searchLeads(String search, Pageable pageable) {
+        if (!fullTextSearch) {
+            return leadRepository.searchLeads(search, pageable);
+        }
+        return leadRepository.searchFullText(search.trim(), SearchTerms.containsPattern(search), SearchTerms.byRank(pageable));
     }
 
     @Transactional(readOnly = true)
-    public Page<Lead> getLeadsByStage(String stage, Pageable pageable) {
-        return leadRepository.findByStage(stage, pageable);
+    public Page<LeadSummary> getLeadsByStage(String stage, Pageable pageable) {
+        return leadRepository.findSummariesByStage(stage, pageable);
     }
 
     @Transactional
@@ -136,20 +166,20 @@ public class LeadService {
     }
 
     private void updateStageWithLogging(Lead lead, String oldStage, String newStage) {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("oldStage", oldStage);
-        payload.put("newStage", newStage);
+        kpiCounterService.leadStageChanged(oldStage, newStage);
 
         String description = String.format("Lead stage changed from %s to %s", oldStage, newStage);
-        activityService.logActivity("LEAD", lead.getId(), "STAGE_CHANGED", description, payload, null);
+        activityService.logActivity(ActivityEntityType.LEAD, lead.getId(), "STAGE_CHANGED", description,
+                new ActivityPayload.StageChanged(oldStage, newStage), null);
     }
 
     @Transactional
     public void deleteLead(Long id) {
         Lead lead = getLeadById(id);
         leadRepository.delete(lead);
+        kpiCounterService.leadDeleted(lead);
         
-        activityService.logActivity("LEAD", id, "DELETED", "Lead deleted", null, null);
+        activityService.logActivity(ActivityEntityType.LEAD, id, "DELETED", "Lead deleted", null, null);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,334 @@
+package com.martiniano.crm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.martiniano.crm.entity.ActivityEntityType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed activities and dashboard KPIs to Server-Sent Events subscribers,
+ * so clients stop polling the timeline and KPI endpoints.
+ *
+ * Subscribers follow one topic: an entity's activity timeline or the dashboard. An
+ * update is serialized once and offered to every subscriber of its topic; each
+ * subscriber has a bounded buffer drained by its own virtual thread. That thread
+ * hands each write to a fixed pool of {@code writer-threads} platform threads:
+ * {@code ResponseBodyEmitter.send} is {@code synchronized} and Tomcat's blocking
+ * write waits inside it, so a virtual thread writing to a slow socket would pin its
+ * carrier. A slow socket therefore holds one writer, never a carrier, and only live
+ * updates slow down. A subscriber whose buffer is full is evicted and its stream
+ * closed; the client reconnects and reloads. Idle streams get a comment every
+ * {@code heartbeat} to detect dead connections.
+ *
+ * KPI changes are coalesced: commits only mark the dashboard dirty, and at most once
+ * per {@code kpi-interval} the current KPIs are read (from the dashboard cache) and
+ * pushed in full. With {@link PgNotifyBridge} enabled, updates travel through
+ * PostgreSQL so every instance delivers them to its own subscribers.
+ */
+@Service
+public class LiveUpdateHub {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdateHub.class);
+
+    public static final String ACTIVITY_EVENT = "activity";
+    public static final String KPIS_EVENT = "kpis";
+
+    static final String DASHBOARD_TOPIC = "dashboard";
+
+    private final DashboardService dashboardService;
+    private final PgNotifyBridge bridge;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long heartbeatMs;
+    private final long emitterTimeoutMs;
+    private final int maxSubscribers;
+    private final Map<String, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicBoolean kpisDirty = new AtomicBoolean();
+    private final ThreadFactory senders = Thread.ofVirtual().name("live-sse-", 0).factory();
+    private final ThreadPoolExecutor writers;
+    private final Counter evictedCounter;
+
+    public LiveUpdateHub(DashboardService dashboardService,
+                         PgNotifyBridge bridge,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.live.buffer-size:256}") int bufferSize,
+                         @Value("${app.live.heartbeat:15000}") long heartbeatMs,
+                         @Value("${app.live.emitter-timeout:1800000}") long emitterTimeoutMs,
+                         @Value("${app.live.max-subscribers:10000}") int maxSubscribers,
+                         @Value("${app.live.writer-threads:16}") int writerThreads) {
+        this.dashboardService = dashboardService;
+        this.bridge = bridge;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.heartbeatMs = heartbeatMs;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threadIndex = new AtomicInteger();
+        // Unbounded queue: each subscriber waits for its write, so at most one per stream is queued
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "live-sse-writer-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("live.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open Server-Sent Events streams")
+                .register(meterRegistry);
+        this.evictedCounter = Counter.builder("live.subscribers.evicted")
+                .description("Streams closed because the client fell behind")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        bridge.start(this::receive);
+    }
+
+    @PreDestroy
+    void stop() {
+        topics.values().forEach(subscribers -> subscribers.forEach(Subscriber::close));
+        writers.shutdownNow();
+    }
+
+    public SseEmitter subscribeActivities(ActivityEntityType entityType, Long entityId) {
+        return subscribe(activityTopic(entityType, entityId), new SseEmitter(emitterTimeoutMs));
+    }
+
+    /** Opens a dashboard stream; the current KPIs are sent straight away. */
+    public SseEmitter subscribeDashboard() {
+        SseEmitter emitter = subscribe(DASHBOARD_TOPIC, new SseEmitter(emitterTimeoutMs));
+        kpisDirty.set(true);
+        return emitter;
+    }
+
+    SseEmitter subscribe(String topic, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManySubscribersException();
+        }
+        Subscriber subscriber = new Subscriber(topic, emitter);
+        topics.compute(topic, (key, subscribers) -> {
+            Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        senders.newThread(subscriber::run).start();
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityLogged(ActivityLoggedEvent event) {
+        var activity = event.activity();
+        String topic = activityTopic(activity.getEntityType(), activity.getEntityId());
+        if (!bridge.isEnabled() && !topics.containsKey(topic)) {
+            return;
+        }
+        publish(topic, ACTIVITY_EVENT, objectMapper.valueToTree(activity));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onKpiCountersChanged(KpiCountersChangedEvent event) {
+        if (bridge.isEnabled()) {
+            publish(DASHBOARD_TOPIC, KPIS_EVENT, null);
+        } else {
+            kpisDirty.set(true);
+        }
+    }
+
+    /**
+     * Pushes the current KPIs to dashboard subscribers if anything changed since the
+     * last push. {@link DashboardService} evicts its cache before the dirty flag is
+     * set, so the push never reads KPIs older than the commit that triggered it.
+     */
+    @Scheduled(fixedDelayString = "${app.live.kpi-interval:1000}")
+    public void pushKpis() {
+        if (!kpisDirty.getAndSet(false) || !topics.containsKey(DASHBOARD_TOPIC)) {
+            return;
+        }
+        deliver(DASHBOARD_TOPIC, KPIS_EVENT, write(dashboardService.getDashboardKPIs()));
+    }
+
+    private void publish(String topic, String event, JsonNode data) {
+        if (bridge.isEnabled()) {
+            ObjectNode envelope = objectMapper.createObjectNode();
+            envelope.put("topic", topic);
+            envelope.put("event", event);
+            envelope.set("data", data);
+            if (bridge.send(write(envelope))) {
+                return;
+            }
+            log.debug("Live update for {} too large for NOTIFY, delivering locally only", topic);
+        }
+        if (KPIS_EVENT.equals(event)) {
+            kpisDirty.set(true);
+        } else {
+            deliver(topic, event, write(data));
+        }
+    }
+
+    /** Handles an update relayed by {@link PgNotifyBridge}, from this or any other instance. */
+    private void receive(String payload) {
+        JsonNode envelope;
+        try {
+            envelope = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage(), e);
+        }
+        String event = envelope.path("event").asText();
+        if (KPIS_EVENT.equals(event)) {
+            // KPI payloads are read locally, so other instances' changes only mark them stale
+            kpisDirty.set(true);
+        } else {
+            deliver(envelope.path("topic").asText(), event, write(envelope.get("data")));
+        }
+    }
+
+    private void deliver(String topic, String event, String json) {
+        Set<Subscriber> subscribers = topics.get(topic);
+        if (subscribers == null) {
+            return;
+        }
+        Message message = new Message(event, json);
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(message)) {
+                evictedCounter.increment();
+                log.debug("Evicting slow live update subscriber on {}", topic);
+                subscriber.close();
+            }
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Live update is not serializable", e);
+        }
+    }
+
+    static String activityTopic(ActivityEntityType entityType, Long entityId) {
+        return "activity:" + entityType + ":" + entityId;
+    }
+
+    private record Message(String event, String json) {
+    }
+
+    private final class Subscriber {
+
+        private final String topic;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private volatile Thread sender;
+
+        Subscriber(String topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+
+        void run() {
+            sender = Thread.currentThread();
+            try {
+                while (open.get()) {
+                    Message message = queue.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                    if (message == null) {
+                        send(SseEmitter.event().comment("keepalive"));
+                    } else {
+                        send(SseEmitter.event().name(message.event()).data(message.json(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException | RejectedExecutionException e) {
+                // Client went away or the hub is stopping; the callbacks or the close below clean up
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+                emitter.complete();
+            }
+        }
+
+        /** Sends on a writer thread; this virtual thread parks, unpinned, until it is done. */
+        private void send(SseEmitter.SseEventBuilder event) throws IOException, InterruptedException {
+            Future<?> write = writers.submit(() -> {
+                emitter.send(event);
+                return null;
+            });
+            try {
+                write.get();
+            } catch (InterruptedException e) {
+                // Closed while the socket is stuck: free the writer too
+                write.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        void close() {
+            if (!open.compareAndSet(true, false)) {
+                return;
+            }
+            topics.computeIfPresent(topic, (key, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+            subscriberCount.decrementAndGet();
+            Thread thread = sender;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    public static class TooManySubscribersException extends RuntimeException {
+        public TooManySubscribersException() {
+            super("Too many live update streams are open, try again later");
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.entity.Notification;
+import com.martiniano.crm.repository.NotificationRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers rows from the {@code notifications} outbox.
+ *
+ * After a notification commits, a drain task is queued on a bounded worker pool.
+ * A drain claims up to {@code batch-size} due rows with a lease and sends them with a
+ * single {@code JavaMailSender.send(SimpleMailMessage...)} call, which reuses one SMTP
+ * session for the whole batch. SMTP traffic happens outside any transaction, and each
+ * outcome is recorded afterwards. Failures back off exponentially until
+ * {@code max-attempts}, after which the row is parked as {@code DEAD}.
+ *
+ * In digest mode ({@code app.notifications.digest.enabled}) contact emails do not
+ * trigger a drain. Instead, each poll folds the due ones into one summary email, so
+ * the poll interval becomes the digest interval. Other types, such as reminders, are
+ * still sent on commit to their own recipients, and drains between polls leave the
+ * contact emails alone. A scheduled poller also picks up retries, rows the pool
+ * rejected, and rows left behind by a restart.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String DEAD = "DEAD";
+
+    private final NotificationRepository notificationRepository;
+    private final EntityManager entityManager;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long leaseMs;
+    private final int batchSize;
+    private final boolean digestEnabled;
+    private final String digestRecipient;
+    private final String claimSql;
+    private final String claimUndigestedSql;
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final AtomicBoolean digestDue = new AtomicBoolean();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final DistributionSummary batchSizeSummary;
+    private final Timer sendTimer;
+
+    public NotificationDispatcher(NotificationRepository notificationRepository,
+                                  EntityManager entityManager,
+                                  EntityManagerFactory entityManagerFactory,
+                                  JavaMailSender mailSender,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.notifications.workers:4}") int workerCount,
+                                  @Value("${app.notifications.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${app.notifications.max-attempts:6}") int maxAttempts,
+                                  @Value("${app.notifications.initial-backoff:30000}") long initialBackoffMs,
+                                  @Value("${app.notifications.lease:300000}") long leaseMs,
+                                  @Value("${app.notifications.batch-size:50}") int batchSize,
+                                  @Value("${app.notifications.digest.enabled:false}") boolean digestEnabled,
+                                  @Value("${app.contact.recipient}") String digestRecipient) {
+        this.notificationRepository = notificationRepository;
+        this.entityManager = entityManager;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.leaseMs = leaseMs;
+        this.batchSize = batchSize;
+        this.digestEnabled = digestEnabled;
+        this.digestRecipient = digestRecipient;
+        boolean postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        this.claimSql = claimSql(postgres, "");
+        this.claimUndigestedSql = claimSql(postgres, " AND type <> '" + EmailService.CONTACT_EMAIL + "'");
+        AtomicInteger threadIndex = new AtomicInteger();
+        // Platform threads even in virtual-thread mode: JavaMail's SMTP transport holds
+        // monitors around socket I/O, which would pin a virtual thread's carrier
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-worker-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("notifications.pending", pendingCount, AtomicLong::get)
+                .description("Pending notifications seen at the last poll")
+                .register(meterRegistry);
+        Gauge.builder("notifications.dispatch.queue", workers, pool -> pool.getQueue().size())
+                .description("Drain tasks waiting for a notification worker")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("notifications.batch.size")
+                .description("Messages sent per SMTP session")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("notifications.send.latency")
+                .description("Time spent in one batched SMTP send")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Locks, leases and loads a batch in one statement. SKIP LOCKED lets concurrent
+     * drains split the due rows; H2 has no UPDATE ... RETURNING, only FINAL TABLE.
+     */
+    private static String claimSql(boolean postgres, String typeFilter) {
+        String lease = "UPDATE notifications SET next_attempt_at = :leaseUntil WHERE id IN (" +
+                "SELECT id FROM notifications WHERE status = 'PENDING' AND next_attempt_at <= :now" + typeFilter +
+                " ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED)";
+        return postgres ? lease + " RETURNING *" : "SELECT * FROM FINAL TABLE (" + lease + ")";
+    }
+
+    /**
+     * Queues a drain once the current transaction commits, or immediately when
+     * called outside a transaction. In digest mode contact emails wait for the poller.
+     */
+    public void dispatchAfterCommit(Notification notification) {
+        if (digestEnabled && isDigested(notification)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submitDrain();
+                }
+            });
+        } else {
+            submitDrain();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.poll-interval:30000}",
+               initialDelayString = "${app.notifications.poll-interval:30000}")
+    public void pollDue() {
+        pendingCount.set(notificationRepository.countByStatus(PENDING));
+        digestDue.set(true);
+        submitDrain();
+    }
+
+    /**
+     * Coalesces bursts of commits into one queued drain; a drain that fills a
+     * whole batch queues the next one itself. A poll coalesced into a queued drain
+     * still gets its digest, because the drain reads {@code digestDue} when it runs.
+     */
+    private void submitDrain() {
+        if (!drainQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                drainQueued.set(false);
+                boolean includeDigest = digestDue.getAndSet(false);
+                if (drain(includeDigest) == batchSize) {
+                    if (includeDigest) {
+                        digestDue.set(true);
+                    }
+                    submitDrain();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            drainQueued.set(false);
+            // Rows stay PENDING; the poller retries them once the pool drains
+            log.debug("Notification worker pool saturated, deferring drain");
+        }
+    }
+
+    /**
+     * Claims up to one batch of due notifications and sends them over a single
+     * SMTP session. In digest mode the contact emails among them are folded into
+     * one digest instead. Returns the number of rows claimed.
+     */
+    int drain() {
+        return drain(true);
+    }
+
+    /** As {@link #drain()}; without {@code includeDigest}, contact emails in digest mode are left due. */
+    private int drain(boolean includeDigest) {
+        List<Notification> batch = claimBatch(digestEnabled && !includeDigest ? claimUndigestedSql : claimSql);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        if (digestEnabled) {
+            Map<Boolean, List<Notification>> digested = batch.stream().collect(Collectors.partitioningBy(this::isDigested));
+            if (!digested.get(false).isEmpty()) {
+                sendBatch(digested.get(false));
+            }
+            if (!digested.get(true).isEmpty()) {
+                sendDigest(digested.get(true));
+            }
+        } else {
+            sendBatch(batch);
+        }
+        return batch.size();
+    }
+
+    /** Leases up to one batch of due notifications to this drain and returns them. */
+    List<Notification> claimBatch() {
+        return claimBatch(claimSql);
+    }
+
+    private List<Notification> claimBatch(String sql) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(Duration.ofMillis(leaseMs));
+        return transactionTemplate.execute(status -> entityManager.createNativeQuery(sql, Notification.class)
+                .setParameter("leaseUntil", leaseUntil)
+                .setParameter("now", now)
+                .setParameter("limit", batchSize)
+                .getResultList());
+    }
+
+    private void sendBatch(List<Notification> batch) {
+        SimpleMailMessage[] messages = batch.stream().map(this::toMessage).toArray(SimpleMailMessage[]::new);
+        Map<Object, Exception> failures = Map.of();
+        long started = System.nanoTime();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+        } catch (Exception e) {
+            failures = allFailed(messages, e);
+        } finally {
+            sendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(messages.length);
+        }
+
+        Map<Object, Exception> failed = failures;
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < batch.size(); i++) {
+                Exception error = failed.get(messages[i]);
+                if (error == null) {
+                    markSent(batch.get(i).getId());
+                } else {
+                    markFailed(batch.get(i).getId(), error);
+                }
+            }
+        });
+    }
+
+    private void sendDigest(List<Notification> batch) {
+        StringBuilder body = new StringBuilder();
+        for (Notification notification : batch) {
+            body.append("=== ").append(notification.getSubject()).append(" ===\n")
+                .append(notification.getBody()).append("\n\n");
+        }
+        SimpleMailMessage digest = new SimpleMailMessage();
+        digest.setTo(digestRecipient);
+        digest.setSubject("Resumen de contactos desde portfolio - " + batch.size() + " nuevos");
+        digest.setText(body.toString());
+
+        Exception error = null;
+        long started = System.nanoTime();
+        try {
+            mailSender.send(digest);
+        } catch (Exception e) {
+            error = e;
+        } finally {
+            sendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(1);
+        }
+
+        Exception failure = error;
+        transactionTemplate.executeWithoutResult(status -> batch.forEach(n -> {
+            if (failure == null) {
+                markSent(n.getId());
+            } else {
+                markFailed(n.getId(), failure);
+            }
+        }));
+    }
+
+    private Map<Object, Exception> allFailed(SimpleMailMessage[] messages, Exception error) {
+        Map<Object, Exception> failures = new HashMap<>();
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, error);
+        }
+        return failures;
+    }
+
+    private void markSent(Long notificationId) {
+        notificationRepository.findById(notificationId).ifPresent(n -> {
+            n.setStatus(SENT);
+            n.setAttempts(n.getAttempts() + 1);
+            n.setSentAt(LocalDateTime.now());
+            n.setLastError(null);
+        });
+    }
+
+    private void markFailed(Long notificationId, Exception error) {
+        notificationRepository.findById(notificationId).ifPresent(n -> {
+            int attempts = n.getAttempts() + 1;
+            n.setAttempts(attempts);
+            n.setLastError(error.getMessage());
+            if (attempts >= maxAttempts) {
+                n.setStatus(DEAD);
+                log.error("Notification {} moved to dead-letter after {} attempts", notificationId, attempts);
+            } else {
+                long backoffMs = initialBackoffMs << (attempts - 1);
+                n.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMs)));
+                log.warn("Notification {} delivery failed (attempt {}): {}", notificationId, attempts, error.getMessage());
+            }
+        });
+    }
+
+    private boolean isDigested(Notification notification) {
+        return EmailService.CONTACT_EMAIL.equals(notification.getType());
+    }
+
+    private SimpleMailMessage toMessage(Notification notification) {
+        SimpleMailMessage msg = new SimpleMailMessage();
+        msg.setTo(notification.getRecipient());
+        msg.setReplyTo(notification.getReplyTo());
+        msg.setSubject(notification.getSubject());
+        msg.setText(notification.getBody());
+        return msg;
+    }
+}
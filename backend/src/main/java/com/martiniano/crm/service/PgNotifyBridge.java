@@ -0,0 +1,138 @@
+package com.martiniano.crm.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+/**
+ * Optional PostgreSQL {@code LISTEN/NOTIFY} transport for {@link LiveUpdateHub}
+ * ({@code app.live.pg-notify.enabled}), so every instance sees live updates raised
+ * on any other.
+ *
+ * Messages are sent with {@code pg_notify} in their own short transaction and read
+ * back, on every instance including the sender, by one listener thread holding a
+ * dedicated connection outside the pool. PostgreSQL caps a payload just under 8000
+ * bytes; {@link #send} refuses anything larger. Notifications raised while the
+ * listener is reconnecting are lost, which live updates tolerate.
+ */
+@Component
+public class PgNotifyBridge {
+
+    private static final Logger log = LoggerFactory.getLogger(PgNotifyBridge.class);
+
+    static final int MAX_PAYLOAD_BYTES = 7999;
+
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate notifyTransaction;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final String channel;
+    private final int pollTimeoutMs;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PgNotifyBridge(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          DataSourceProperties dataSourceProperties,
+                          @Value("${app.live.pg-notify.enabled:false}") boolean enabled,
+                          @Value("${app.live.pg-notify.channel:crm_live}") String channel,
+                          @Value("${app.live.pg-notify.poll-timeout:10000}") int pollTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Callers run after their own transaction committed, so the notification needs its own
+        this.notifyTransaction = new TransactionTemplate(transactionManager);
+        this.notifyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.pollTimeoutMs = pollTimeoutMs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Starts the listener thread; every received payload is passed to {@code receiver}. */
+    void start(Consumer<String> receiver) {
+        if (!enabled || listener != null) {
+            return;
+        }
+        running = true;
+        listener = new Thread(() -> listen(receiver), "pg-notify-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /** Returns {@code false} without sending if the payload exceeds the PostgreSQL limit. */
+    boolean send(String payload) {
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            return false;
+        }
+        notifyTransaction.executeWithoutResult(status ->
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload));
+        return true;
+    }
+
+    private void listen(Consumer<String> receiver) {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for live updates on channel {}", channel);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        try {
+                            receiver.accept(notification.getParameter());
+                        } catch (RuntimeException e) {
+                            log.warn("Dropping malformed live update: {}", e.getMessage());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Live update listener lost its connection, retrying in {} ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.martiniano.crm.service;
 
+import com.martiniano.crm.dto.CursorPage;
+import com.martiniano.crm.dto.PageCursor;
 import com.martiniano.crm.dto.ProjectRequest;
+import com.martiniano.crm.dto.ProjectSummary;
+import com.martiniano.crm.entity.ActivityEntityType;
 import com.martiniano.crm.entity.Project;
 import com.martiniano.crm.repository.ClientRepository;
 import com.martiniano.crm.repository.ProjectRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,13 +24,16 @@ public class ProjectService {
     private final ProjectRepository projectRepository;
     private final ClientRepository clientRepository;
     private final ActivityService activityService;
+    private final KpiCounterService kpiCounterService;
 
     public ProjectService(ProjectRepository projectRepository,
                           ClientRepository clientRepository,
-                          ActivityService activityService) {
+                          ActivityService activityService,
+                          KpiCounterService kpiCounterService) {
         this.projectRepository = projectRepository;
         this.clientRepository = clientRepository;
         this.activityService = activityService;
+        this.kpiCounterService = kpiCounterService;
     }
 
     @Transactional
@@ -49,8 +58,9 @@ public class ProjectService {
         project.setBudgetAmount(request.getBudgetAmount());
 
         Project savedProject = projectRepository.save(project);
+        kpiCounterService.projectCreated(savedProject.getStatus());
 
-        activityService.logActivity("PROJECT", savedProject.getId(), "CREATED", 
+        activityService.logActivity(ActivityEntityType.PROJECT, savedProject.getId(), "CREATED", 
                 "Project created", null, null);
 
         return savedProject;
@@ -63,8 +73,21 @@ public class ProjectService {
     }
 
     @Transactional(readOnly = true)
-    public Page<Project> getAllProjects(Pageable pageable) {
-        return projectRepository.findAll(pageable);
+    public Page<ProjectSummary> getAllProjects(Pageable pageable) {
+        return projectRepository.findSummaries(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ProjectSummary> scrollProjects(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, CursorPage.clampSize(size));
+        Slice<ProjectSummary> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = projectRepository.findFirstSlice(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            slice = projectRepository.findSliceBefore(after.createdAt(), after.id(), limit);
+        }
+        return CursorPage.of(slice, project -> new PageCursor(project.getCreatedAt(), project.getId()));
     }
 
     @Transactional(readOnly = true)
@@ -76,13 +99,14 @@ public class ProjectService {
     }
 
     @Transactional(readOnly = true)
-    public Page<Project> getProjectsByStatus(String status, Pageable pageable) {
-        return projectRepository.findByStatus(status, pageable);
+    public Page<ProjectSummary> getProjectsByStatus(String status, Pageable pageable) {
+        return projectRepository.findSummariesByStatus(status, pageable);
     }
 
     @Transactional
     public Project updateProject(Long id, ProjectRequest request) {
         Project project = getProjectById(id);
+        String oldStatus = project.getStatus();
 
         if (request.getClientId() != null && !request.getClientId().equals(project.getClientId())) {
             if (!clientRepository.existsById(request.getClientId())) {
@@ -128,8 +152,9 @@ public class ProjectService {
         }
 
         Project updatedProject = projectRepository.save(project);
+        kpiCounterService.projectStatusChanged(oldStatus, updatedProject.getStatus());
 
-        activityService.logActivity("PROJECT", project.getId(), "UPDATED", 
+        activityService.logActivity(ActivityEntityType.PROJECT, project.getId(), "UPDATED", 
                 "Project information updated", null, null);
 
         return updatedProject;
@@ -139,8 +164,9 @@ public class ProjectService {
     public void deleteProject(Long id) {
         Project project = getProjectById(id);
         projectRepository.delete(project);
+        kpiCounterService.projectDeleted(project.getStatus());
         
-        activityService.logActivity("PROJECT", id, "DELETED", "Project deleted", null, null);
+        activityService.logActivity(ActivityEntityType.PROJECT, id, "DELETED", "Project deleted", null, null);
     }
 
     @Transactional(readOnly = true)
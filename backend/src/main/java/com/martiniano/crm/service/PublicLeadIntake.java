@@ -0,0 +1,148 @@
+package com.martiniano.crm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.martiniano.crm.dto.LeadCreateRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+/**
+ * Front door for the unauthenticated {@code POST /api/v1/leads/public}.
+ *
+ * Every submission first takes a token from two {@link TokenBucketLimiter}s, one per
+ * client IP and one per email address, and is rejected with
+ * {@link RateLimitedException} if either is empty, before any database work. A
+ * submission identical to one accepted within {@code dedup-window} is answered with
+ * the original lead id instead of creating another lead, activity and email; identical
+ * submissions arriving while the first is still being written wait for it and share
+ * its result. Rejections ({@code leads.public.rejected}, tagged by limit) and
+ * duplicates ({@code leads.public.deduplicated}) are counted.
+ */
+@Service
+public class PublicLeadIntake {
+
+    public record Submission(Long leadId, boolean duplicate) {
+    }
+
+    private final LeadService leadService;
+    private final boolean rateLimitEnabled;
+    private final TokenBucketLimiter ipLimiter;
+    private final TokenBucketLimiter emailLimiter;
+    private final Cache<String, CompletableFuture<Long>> recent;
+    private final Counter ipRejections;
+    private final Counter emailRejections;
+    private final Counter duplicates;
+
+    public PublicLeadIntake(LeadService leadService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.leads.public.rate-limit.enabled:true}") boolean rateLimitEnabled,
+                            @Value("${app.leads.public.rate-limit.ip.capacity:10}") int ipCapacity,
+                            @Value("${app.leads.public.rate-limit.ip.refill-interval:6000}") long ipRefillMs,
+                            @Value("${app.leads.public.rate-limit.email.capacity:3}") int emailCapacity,
+                            @Value("${app.leads.public.rate-limit.email.refill-interval:120000}") long emailRefillMs,
+                            @Value("${app.leads.public.rate-limit.max-keys:100000}") long maxKeys,
+                            @Value("${app.leads.public.dedup-window:600000}") long dedupWindowMs,
+                            @Value("${app.leads.public.dedup-max-size:10000}") long dedupMaxSize) {
+        this.leadService = leadService;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.ipLimiter = new TokenBucketLimiter(ipCapacity, Duration.ofMillis(ipRefillMs), maxKeys);
+        this.emailLimiter = new TokenBucketLimiter(emailCapacity, Duration.ofMillis(emailRefillMs), maxKeys);
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(dedupMaxSize)
+                .expireAfterWrite(Duration.ofMillis(dedupWindowMs))
+                .build();
+        this.ipRejections = rejectionCounter(meterRegistry, "ip");
+        this.emailRejections = rejectionCounter(meterRegistry, "email");
+        this.duplicates = Counter.builder("leads.public.deduplicated")
+                .description("Public lead submissions answered from the duplicate window")
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder("leads.public.rejected")
+                .description("Public lead submissions rejected by the rate limiter")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    public Submission submit(LeadCreateRequest request, String clientIp) {
+        if (rateLimitEnabled) {
+            admit(ipLimiter, clientIp, ipRejections);
+            admit(emailLimiter, request.getEmail().trim().toLowerCase(Locale.ROOT), emailRejections);
+        }
+
+        String key = fingerprint(request);
+        CompletableFuture<Long> pending = new CompletableFuture<>();
+        CompletableFuture<Long> existing = recent.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            duplicates.increment();
+            try {
+                return new Submission(existing.join(), true);
+            } catch (CompletionException e) {
+                // The original attempt failed and was forgotten; this one starts afresh
+                return submit(request, clientIp);
+            }
+        }
+        try {
+            Long leadId = leadService.createLead(request).getId();
+            pending.complete(leadId);
+            return new Submission(leadId, false);
+        } catch (RuntimeException e) {
+            recent.asMap().remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static void admit(TokenBucketLimiter limiter, String key, Counter rejections) {
+        Duration retryAfter = limiter.tryAcquire(key);
+        if (!retryAfter.isZero()) {
+            rejections.increment();
+            throw new RateLimitedException(retryAfter);
+        }
+    }
+
+    /** SHA-256 over the normalized fields, so the window holds no personal data in clear. */
+    static String fingerprint(LeadCreateRequest request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        Stream.of(request.getEmail(), request.getName(), request.getPhone(), request.getCompany(),
+                        request.getBudgetRange(), request.getProjectType(), request.getMessage(), request.getSource())
+                .map(value -> value == null ? "" : value.strip().toLowerCase(Locale.ROOT))
+                .forEach(value -> {
+                    digest.update(value.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                });
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static class RateLimitedException extends RuntimeException {
+
+        private final Duration retryAfter;
+
+        public RateLimitedException(Duration retryAfter) {
+            super("Too many submissions, try again later");
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+}
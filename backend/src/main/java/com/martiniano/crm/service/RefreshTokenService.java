@@ -0,0 +1,232 @@
+package com.martiniano.crm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.martiniano.crm.dto.LoginResponse;
+import com.martiniano.crm.entity.RefreshToken;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.RefreshTokenRepository;
+import com.martiniano.crm.security.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Issues and rotates refresh tokens, so an expired access token is renewed with
+ * one indexed lookup and an HMAC instead of a BCrypt verification.
+ *
+ * A refresh token is 32 random bytes; the table only holds their HMAC-SHA256 under
+ * {@code app.jwt.secret}. Each token is single use: a refresh marks it used and
+ * issues the next token of the same family. Presenting a used token again means it
+ * was copied, so the whole family is revoked and the user has to log in again. The
+ * one exception is a retry within {@code app.jwt.refresh-grace} on the same node,
+ * e.g. after the client lost the first response, which gets the same answer again
+ * from memory. Expired rows are deleted in batches by {@link #purgeExpired()}.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private enum Outcome { ROTATED, INVALID, REUSED }
+
+    private record Rotation(Outcome outcome, Long familyId, LoginResponse response) {
+    }
+
+    private record Rotated(Long familyId, LoginResponse response) {
+    }
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration expiration;
+    private final int cleanupBatchSize;
+    private final Mac macPrototype;
+    private final SecureRandom random = new SecureRandom();
+    private final Cache<String, Rotated> recentlyRotated;
+    private final Counter rotatedCounter;
+    private final Counter graceCounter;
+    private final Counter invalidCounter;
+    private final Counter reusedCounter;
+    private final Counter purgedCounter;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               JwtUtil jwtUtil,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.jwt.secret}") String secret,
+                               @Value("${app.jwt.refresh-expiration:604800000}") long expirationMs,
+                               @Value("${app.jwt.refresh-grace:10000}") long graceMs,
+                               @Value("${app.jwt.refresh-cleanup.batch-size:1000}") int cleanupBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiration = Duration.ofMillis(expirationMs);
+        this.cleanupBatchSize = cleanupBatchSize;
+        try {
+            this.macPrototype = Mac.getInstance("HmacSHA256");
+            macPrototype.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+        this.recentlyRotated = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(graceMs))
+                .build();
+        this.rotatedCounter = refreshCounter(meterRegistry, "rotated");
+        this.graceCounter = refreshCounter(meterRegistry, "grace");
+        this.invalidCounter = refreshCounter(meterRegistry, "invalid");
+        this.reusedCounter = refreshCounter(meterRegistry, "reused");
+        this.purgedCounter = Counter.builder("auth.refresh.purged")
+                .description("Expired refresh tokens deleted")
+                .register(meterRegistry);
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.refresh")
+                .description("Refresh token requests by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /** Starts a new token family for a fresh login and returns its first token. */
+    public String issue(User user) {
+        return transactionTemplate.execute(status ->
+                store(user, random.nextLong() & Long.MAX_VALUE, LocalDateTime.now()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and the next refresh token.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or reused
+     */
+    public LoginResponse refresh(String rawToken) {
+        byte[] hash = hash(rawToken);
+        String key = HexFormat.of().formatHex(hash);
+        Rotated recent = recentlyRotated.getIfPresent(key);
+        if (recent != null) {
+            graceCounter.increment();
+            return recent.response();
+        }
+
+        Rotation rotation = transactionTemplate.execute(status -> rotate(hash));
+        switch (rotation.outcome()) {
+            case ROTATED -> {
+                recentlyRotated.put(key, new Rotated(rotation.familyId(), rotation.response()));
+                rotatedCounter.increment();
+                return rotation.response();
+            }
+            case REUSED -> {
+                reusedCounter.increment();
+                log.warn("Refresh token reused; revoked token family {}", rotation.familyId());
+                throw new InvalidRefreshTokenException();
+            }
+            default -> {
+                invalidCounter.increment();
+                throw new InvalidRefreshTokenException();
+            }
+        }
+    }
+
+    /** Logout: revokes the token's whole family. Unknown tokens are ignored. */
+    public void revoke(String rawToken) {
+        Long familyId = transactionTemplate.execute(status ->
+                refreshTokenRepository.findByTokenHashWithUser(hash(rawToken))
+                        .map(token -> {
+                            refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now());
+                            return token.getFamilyId();
+                        })
+                        .orElse(null));
+        if (familyId != null) {
+            recentlyRotated.asMap().values().removeIf(rotated -> rotated.familyId().equals(familyId));
+        }
+    }
+
+    /** Deletes expired tokens, one short transaction per batch. */
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-cleanup.interval:3600000}",
+               initialDelayString = "${app.jwt.refresh-cleanup.interval:3600000}")
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    refreshTokenRepository.deleteExpiredBatch(now, cleanupBatchSize));
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            purgedCounter.increment(total);
+            log.debug("Deleted {} expired refresh tokens", total);
+        }
+        return total;
+    }
+
+    private Rotation rotate(byte[] hash) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHashWithUser(hash).orElse(null);
+        if (current == null || current.getRevokedAt() != null || !current.getExpiresAt().isAfter(now)) {
+            return new Rotation(Outcome.INVALID, null, null);
+        }
+        Long familyId = current.getFamilyId();
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(familyId, now);
+            return new Rotation(Outcome.REUSED, familyId, null);
+        }
+        User user = current.getUser();
+        if (!Boolean.TRUE.equals(user.getEnabled())) {
+            refreshTokenRepository.revokeFamily(familyId, now);
+            return new Rotation(Outcome.INVALID, familyId, null);
+        }
+        String next = store(user, familyId, now);
+        LoginResponse response = new LoginResponse(
+                jwtUtil.generateToken(user), user.getUsername(), user.getEmail(), user.getRole(), next);
+        return new Rotation(Outcome.ROTATED, familyId, response);
+    }
+
+    private String store(User user, Long familyId, LocalDateTime now) {
+        byte[] raw = new byte[TOKEN_BYTES];
+        random.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+
+        RefreshToken entity = new RefreshToken();
+        entity.setTokenHash(hash(token));
+        entity.setUser(user);
+        entity.setFamilyId(familyId);
+        entity.setCreatedAt(now);
+        entity.setExpiresAt(now.plus(expiration));
+        refreshTokenRepository.save(entity);
+        return token;
+    }
+
+    private byte[] hash(String token) {
+        try {
+            Mac mac = (Mac) macPrototype.clone();
+            return mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class InvalidRefreshTokenException extends RuntimeException {
+        public InvalidRefreshTokenException() {
+            super("Refresh token is invalid or expired");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.entity.Reminder;
+import com.martiniano.crm.repository.ReminderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Fires due reminders.
+ *
+ * Each poll claims up to {@code batch-size} pending reminders with
+ * {@code FOR UPDATE SKIP LOCKED}, queues one notification per reminder in the
+ * {@code notifications} outbox and marks the reminders {@code DONE}, all in one
+ * transaction; delivery is left to {@link NotificationDispatcher}. Instances polling
+ * at the same time skip each other's locked rows, so a top-of-the-hour burst is
+ * split across the cluster. A poll keeps claiming batches until one comes back
+ * short, so the backlog drains without waiting for the next tick.
+ *
+ * Reminders due within the next few minutes are normally fired earlier, to the
+ * sub-second, by {@link ReminderScheduler}; the poll then only catches what the
+ * in-memory schedule missed (restarts, a full wheel, other instances), so it can
+ * run on a relaxed interval.
+ */
+@Service
+public class ReminderDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderDispatcher.class);
+
+    public static final String PENDING = "PENDING";
+    public static final String DONE = "DONE";
+
+    private final ReminderRepository reminderRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Timer lagTimer;
+    private final Counter dispatchedCounter;
+
+    public ReminderDispatcher(ReminderRepository reminderRepository,
+                              EmailService emailService,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.reminders.batch-size:500}") int batchSize) {
+        this.reminderRepository = reminderRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.lagTimer = Timer.builder("reminders.dispatch.lag")
+                .description("Delay between a reminder's due time and its dispatch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.dispatchedCounter = Counter.builder("reminders.dispatched")
+                .description("Reminders fired")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reminders.poll-interval:60000}",
+               initialDelayString = "${app.reminders.initial-delay:5000}")
+    public void pollDue() {
+        int total = 0;
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+            total += claimed;
+        } while (claimed == batchSize);
+        if (total > 0) {
+            log.debug("Dispatched {} due reminder(s)", total);
+        }
+    }
+
+    /** Claims and fires one batch of due reminders; returns the number claimed. */
+    int dispatchBatch() {
+        return dispatch(now -> reminderRepository.claimDue(now, batchSize));
+    }
+
+    /**
+     * Fires the given reminders if they are still pending and due. Called by
+     * {@link ReminderScheduler} when its timing wheel expires them; ids already
+     * fired elsewhere are skipped. Returns the number claimed.
+     */
+    public int fire(Collection<Long> reminderIds) {
+        List<Long> ids = List.copyOf(reminderIds);
+        int fired = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            fired += dispatch(now -> reminderRepository.claimDueByIds(chunk, now));
+        }
+        return fired;
+    }
+
+    private int dispatch(Function<LocalDateTime, List<Reminder>> claim) {
+        List<Duration> lags = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Reminder> due = claim.apply(now);
+            if (due.isEmpty()) {
+                return List.of();
+            }
+            emailService.sendReminderEmails(due);
+            for (Reminder reminder : due) {
+                reminder.setStatus(DONE);
+                reminder.setCompletedAt(now);
+            }
+            return due.stream().map(reminder -> Duration.between(reminder.getDueAt(), now)).toList();
+        });
+        // Recorded once the batch has committed, so rolled-back claims do not count
+        lags.forEach(lagTimer::record);
+        dispatchedCounter.increment(lags.size());
+        return lags.size();
+    }
+}
@@ -0,0 +1,211 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.dto.ReminderDue;
+import com.martiniano.crm.entity.ReminderChangedEvent;
+import com.martiniano.crm.repository.ReminderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires reminders due in the next few minutes from memory ({@code app.reminders.wheel}).
+ *
+ * Pending reminders due within {@code horizon} are held in a {@link TimingWheel} that
+ * a single thread advances every {@code tick} milliseconds, so a reminder fires within
+ * one tick of its due time without touching the database until it does. The window is
+ * reloaded from the table on startup and every {@code refresh-interval}; in between,
+ * {@link ReminderChangedEvent}s keep the wheel in step with committed writes. Expired
+ * ids are handed to {@link ReminderDispatcher#fire}, which re-checks status and due
+ * time under {@code SKIP LOCKED}, so a stale or duplicate entry never fires twice.
+ *
+ * The wheel holds at most {@code max-size} reminders. Anything it cannot hold, and
+ * anything missed while the application was down, is left to the
+ * {@link ReminderDispatcher} poll.
+ */
+@Service
+public class ReminderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    private static final int WHEEL_SIZE = 64;
+
+    private final ReminderRepository reminderRepository;
+    private final ReminderDispatcher reminderDispatcher;
+    private final boolean enabled;
+    private final long tickMs;
+    private final long horizonMs;
+    private final TimingWheel wheel;
+    private final ThreadPoolExecutor firing;
+    private ScheduledExecutorService ticker;
+
+    public ReminderScheduler(ReminderRepository reminderRepository,
+                             ReminderDispatcher reminderDispatcher,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.reminders.wheel.enabled:true}") boolean enabled,
+                             @Value("${app.reminders.wheel.tick:100}") long tickMs,
+                             @Value("${app.reminders.wheel.horizon:300000}") long horizonMs,
+                             @Value("${app.reminders.wheel.max-size:100000}") int maxSize,
+                             @Value("${app.reminders.wheel.queue-capacity:1000}") int queueCapacity) {
+        this.reminderRepository = reminderRepository;
+        this.reminderDispatcher = reminderDispatcher;
+        this.enabled = enabled;
+        this.tickMs = tickMs;
+        this.horizonMs = horizonMs;
+        this.wheel = new TimingWheel(tickMs, WHEEL_SIZE, levelsFor(tickMs, horizonMs), maxSize, System.currentTimeMillis());
+        this.firing = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "reminder-fire");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("reminders.wheel.size", this, ReminderScheduler::size)
+                .description("Reminders held in the in-memory timing wheel")
+                .register(meterRegistry);
+    }
+
+    /** Fewest levels whose top rotation still spans the whole horizon. */
+    private static int levelsFor(long tickMs, long horizonMs) {
+        int levels = 1;
+        long levelTick = tickMs;
+        while (levelTick * (WHEEL_SIZE - 1) < horizonMs) {
+            levelTick *= WHEEL_SIZE;
+            levels++;
+        }
+        return levels;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        firing.shutdown();
+    }
+
+    int size() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    boolean isScheduled(long reminderId) {
+        synchronized (wheel) {
+            return wheel.contains(reminderId);
+        }
+    }
+
+    /**
+     * Loads every pending reminder due within the horizon. Runs once at startup, which
+     * is how the schedule recovers after a restart, and then on a fixed delay so the
+     * window keeps sliding forward.
+     */
+    @Scheduled(fixedDelayString = "${app.reminders.wheel.refresh-interval:60000}",
+               initialDelayString = "${app.reminders.wheel.initial-delay:0}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ReminderDue> window = reminderRepository.findPendingDueBetween(now, now.plusNanos(horizonMs * 1_000_000));
+        int rejected = 0;
+        synchronized (wheel) {
+            for (ReminderDue reminder : window) {
+                if (wheel.schedule(reminder.getId(), toEpochMilli(reminder.getDueAt())) == TimingWheel.Outcome.REJECTED) {
+                    rejected++;
+                }
+            }
+        }
+        if (rejected > 0) {
+            log.warn("Reminder wheel full, {} reminder(s) left to the poller", rejected);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReminderChanged(ReminderChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!ReminderDispatcher.PENDING.equals(event.status()) || event.dueAt() == null) {
+            synchronized (wheel) {
+                wheel.cancel(event.reminderId());
+            }
+            return;
+        }
+        long dueAt = toEpochMilli(event.dueAt());
+        if (dueAt > System.currentTimeMillis() + horizonMs) {
+            // Moved out of the window; a later refresh brings it back in
+            synchronized (wheel) {
+                wheel.cancel(event.reminderId());
+            }
+            return;
+        }
+        TimingWheel.Outcome outcome;
+        synchronized (wheel) {
+            outcome = wheel.schedule(event.reminderId(), dueAt);
+        }
+        if (outcome == TimingWheel.Outcome.EXPIRED) {
+            submit(List.of(event.reminderId()));
+        }
+    }
+
+    private void tick() {
+        List<Long> expired = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(System.currentTimeMillis(), expired::add);
+        }
+        if (!expired.isEmpty()) {
+            submit(expired);
+        }
+    }
+
+    private void submit(List<Long> reminderIds) {
+        try {
+            firing.execute(() -> {
+                try {
+                    reminderDispatcher.fire(reminderIds);
+                } catch (RuntimeException e) {
+                    // Rows stay PENDING; the poller fires them instead
+                    log.warn("Firing {} reminder(s) failed: {}", reminderIds.size(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Reminder fire queue saturated, leaving {} reminder(s) to the poller", reminderIds.size());
+        }
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
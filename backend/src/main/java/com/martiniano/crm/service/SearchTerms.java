@@ -0,0 +1,33 @@
+package com.martiniano.crm.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Locale;
+
+/**
+ * Helpers shared by the full-text search paths in {@link LeadService} and
+ * {@link ClientService}.
+ */
+final class SearchTerms {
+
+    private SearchTerms() {
+    }
+
+    /**
+     * Lower-cased {@code %term%} pattern with LIKE wildcards in the term escaped,
+     * matching the generated {@code search_text} columns.
+     */
+    static String containsPattern(String term) {
+        String escaped = term.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    /** Search results are ordered by rank, so any client-supplied sort is dropped. */
+    static Pageable byRank(Pageable pageable) {
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+    }
+}
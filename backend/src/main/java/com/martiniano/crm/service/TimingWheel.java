@@ -0,0 +1,194 @@
+package com.martiniano.crm.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel keyed by a {@code long} id.
+ *
+ * Level 0 has {@code wheelSize} slots of {@code tickMs}; each higher level has the
+ * same number of slots, each spanning a whole rotation of the level below. A deadline
+ * is rounded up to the next tick and stored in the lowest level whose rotation still
+ * covers it; when time reaches a higher-level slot its entries cascade down, so
+ * adding, cancelling and expiring are O(1) and nothing is ever scanned. Entries fire
+ * at the first tick at or after their deadline, never earlier.
+ *
+ * Each scheduled id costs one small node plus one map entry, and the number of
+ * entries is capped at {@code capacity}; {@link #schedule} returns {@code false}
+ * instead of growing past it. Not thread-safe; callers synchronize.
+ */
+final class TimingWheel {
+
+    /** Result of {@link #schedule}. */
+    enum Outcome { SCHEDULED, EXPIRED, REJECTED }
+
+    private static final class Node {
+        final long id;
+        long deadline;
+        int level;
+        int slot;
+        Node prev;
+        Node next;
+
+        Node(long id) {
+            this.id = id;
+        }
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final Node[][] slots;
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final int capacity;
+    private long currentTime;
+
+    TimingWheel(long tickMs, int wheelSize, int levels, int capacity, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.capacity = capacity;
+        this.levelTicks = new long[levels];
+        this.slots = new Node[levels][wheelSize];
+        long tick = tickMs;
+        for (int level = 0; level < levels; level++) {
+            levelTicks[level] = tick;
+            tick = Math.multiplyExact(tick, wheelSize);
+        }
+        this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    /** Latest deadline the wheel can hold right now. */
+    long horizon() {
+        int top = levelTicks.length - 1;
+        return currentTime - Math.floorMod(currentTime, levelTicks[top]) + levelTicks[top] * wheelSize - tickMs;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    boolean contains(long id) {
+        return nodes.containsKey(id);
+    }
+
+    /**
+     * Schedules (or moves) {@code id} to fire at {@code deadlineMs}. Returns
+     * {@link Outcome#EXPIRED} without scheduling if the deadline has already passed,
+     * and {@link Outcome#REJECTED} if it is beyond {@link #horizon()} or the wheel is full.
+     */
+    Outcome schedule(long id, long deadlineMs) {
+        long deadline = roundUp(deadlineMs);
+        Node node = nodes.get(id);
+        if (deadline <= currentTime) {
+            if (node != null) {
+                unlink(node);
+                nodes.remove(id);
+            }
+            return Outcome.EXPIRED;
+        }
+        if (deadline > horizon() || (node == null && nodes.size() >= capacity)) {
+            return Outcome.REJECTED;
+        }
+        if (node == null) {
+            node = new Node(id);
+            nodes.put(id, node);
+        } else {
+            unlink(node);
+        }
+        node.deadline = deadline;
+        place(node);
+        return Outcome.SCHEDULED;
+    }
+
+    boolean cancel(long id) {
+        Node node = nodes.remove(id);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /** Advances the clock to {@code nowMs}, passing every id whose deadline was reached to {@code expired}. */
+    void advance(long nowMs, LongConsumer expired) {
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            for (int level = levelTicks.length - 1; level >= 1; level--) {
+                if (currentTime % levelTicks[level] == 0) {
+                    cascade(level, expired);
+                }
+            }
+            Node node = takeSlot(0, slotIndex(currentTime, 0));
+            while (node != null) {
+                Node next = node.next;
+                nodes.remove(node.id);
+                expired.accept(node.id);
+                node = next;
+            }
+        }
+    }
+
+    private void cascade(int level, LongConsumer expired) {
+        Node node = takeSlot(level, slotIndex(currentTime, level));
+        while (node != null) {
+            Node next = node.next;
+            node.prev = null;
+            node.next = null;
+            if (node.deadline <= currentTime) {
+                nodes.remove(node.id);
+                expired.accept(node.id);
+            } else {
+                place(node);
+            }
+            node = next;
+        }
+    }
+
+    private void place(Node node) {
+        for (int level = 0; level < levelTicks.length; level++) {
+            long tick = levelTicks[level];
+            long levelStart = currentTime - Math.floorMod(currentTime, tick);
+            if (node.deadline < levelStart + tick * wheelSize) {
+                node.level = level;
+                node.slot = slotIndex(node.deadline, level);
+                node.prev = null;
+                node.next = slots[level][node.slot];
+                if (node.next != null) {
+                    node.next.prev = node;
+                }
+                slots[level][node.slot] = node;
+                return;
+            }
+        }
+        throw new IllegalStateException("Deadline beyond the wheel horizon");
+    }
+
+    private Node takeSlot(int level, int slot) {
+        Node head = slots[level][slot];
+        slots[level][slot] = null;
+        return head;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else if (slots[node.level][node.slot] == node) {
+            slots[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private int slotIndex(long time, int level) {
+        return (int) Math.floorMod(time / levelTicks[level], (long) wheelSize);
+    }
+
+    private long roundUp(long deadlineMs) {
+        long remainder = Math.floorMod(deadlineMs, tickMs);
+        return remainder == 0 ? deadlineMs : deadlineMs - remainder + tickMs;
+    }
+}
@@ -0,0 +1,61 @@
+package com.martiniano.crm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by an arbitrary string (client IP, email address).
+ *
+ * Each bucket holds up to {@code capacity} tokens and regains one every
+ * {@code refillInterval}. A bucket is a single {@link AtomicLong} holding the
+ * time at which it will be full again (the GCRA form of a token bucket), so taking
+ * a token is one compare-and-set with no lock. Buckets live in a bounded Caffeine
+ * map and expire once idle long enough to have refilled completely, at which point
+ * dropping them loses nothing.
+ */
+final class TokenBucketLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    TokenBucketLimiter(int capacity, Duration refillInterval, long maxKeys) {
+        this(capacity, refillInterval, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int capacity, Duration refillInterval, long maxKeys, LongSupplier clock) {
+        this.intervalNanos = refillInterval.toNanos();
+        this.burstNanos = intervalNanos * capacity;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(burstNanos, TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    /**
+     * Takes one token for {@code key}. Returns zero if it was granted, otherwise how
+     * long the caller has to wait for the next token.
+     */
+    Duration tryAcquire(String key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = clock.getAsLong();
+        while (true) {
+            long current = fullAt.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = base + intervalNanos;
+            if (next - now > burstNanos) {
+                return Duration.ofNanos(next - now - burstNanos);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- The reminder poller only ever looks for pending reminders that are due. A partial
+-- index keeps that lookup proportional to the backlog rather than the table, and
+-- replaces the single-column indexes on due_at and status that nothing else uses.
+DROP INDEX IF EXISTS idx_reminders_due_at;
+DROP INDEX IF EXISTS idx_reminders_status;
+CREATE INDEX idx_reminders_pending_due ON reminders(due_at) WHERE status = 'PENDING';
@@ -0,0 +1,22 @@
+-- Refresh tokens for /api/v1/auth/refresh. Only an HMAC of each token is stored,
+-- looked up through the unique index. Tokens are single use: each refresh marks
+-- its token used and issues the next one in the same family, and presenting a
+-- used token again revokes the whole family.
+CREATE TABLE refresh_tokens (
+    id BIGSERIAL PRIMARY KEY,
+    token_hash BYTEA NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    family_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    used_at TIMESTAMP,
+    revoked_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Must match RefreshToken's allocationSize (see V9)
+ALTER SEQUENCE refresh_tokens_id_seq INCREMENT BY 50;
+
+CREATE UNIQUE INDEX ux_refresh_tokens_hash ON refresh_tokens(token_hash);
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens(family_id);
+-- Drives the batched expiry cleanup
+CREATE INDEX idx_refresh_tokens_expires ON refresh_tokens(expires_at);
@@ -0,0 +1,56 @@
+-- activities becomes a table range-partitioned by month on created_at, so each
+-- month's rows and indexes stay small, inserts only touch the current month and
+-- retention drops whole partitions instead of DELETE-ing rows. Partitions are named
+-- activities_pYYYYMM; ActivityPartitionMaintenance keeps creating them ahead of time.
+ALTER TABLE activities RENAME TO activities_unpartitioned;
+ALTER INDEX activities_pkey RENAME TO activities_unpartitioned_pkey;
+ALTER INDEX idx_activities_entity_created_at_id RENAME TO idx_activities_unpartitioned_entity;
+ALTER INDEX idx_activities_created_at RENAME TO idx_activities_unpartitioned_created_at;
+-- Keep the (pooled, see V9) id sequence when the old table is dropped
+ALTER SEQUENCE activities_id_seq OWNED BY NONE;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE activities (
+    id BIGINT NOT NULL DEFAULT nextval('activities_id_seq'),
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    activity_type VARCHAR(100) NOT NULL,
+    description TEXT,
+    payload JSONB,
+    created_by BIGINT REFERENCES users(id),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE activities_id_seq OWNED BY activities.id;
+
+-- Catches rows outside every monthly partition (e.g. far-future timestamps)
+-- so an insert never fails; normally empty
+CREATE TABLE activities_default PARTITION OF activities DEFAULT;
+
+-- One partition per month from the oldest existing row to three months ahead
+DO $$
+DECLARE
+    partition_start DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM activities_unpartitioned), CURRENT_TIMESTAMP));
+    last_month DATE := date_trunc('month', CURRENT_TIMESTAMP + INTERVAL '3 months');
+BEGIN
+    WHILE partition_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF activities FOR VALUES FROM (%L) TO (%L)',
+                       'activities_p' || to_char(partition_start, 'YYYYMM'), partition_start,
+                       (partition_start + INTERVAL '1 month')::date);
+        partition_start := (partition_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO activities (id, entity_type, entity_id, activity_type, description, payload, created_by, created_at)
+SELECT id, entity_type, entity_id, activity_type, description, payload, created_by, created_at
+FROM activities_unpartitioned;
+
+DROP TABLE activities_unpartitioned;
+
+-- Created on the parent, so every partition (current and future) gets its own copy.
+-- Timelines read the newest partitions first and stop at the page size.
+CREATE INDEX idx_activities_entity_created_at_id ON activities(entity_type, entity_id, created_at DESC, id DESC);
+-- Rows arrive in created_at order, so a BRIN index serves time ranges at a
+-- fraction of a B-tree's size and insert cost
+CREATE INDEX idx_activities_created_at ON activities USING BRIN (created_at);
@@ -0,0 +1,15 @@
+-- Per-entity daily activity counts, written by ActivityPartitionMaintenance from a
+-- month's activities just before retention drops (or detaches) that partition, so
+-- timelines keep a summary of history older than the retention window.
+CREATE TABLE activity_daily_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    activity_date DATE NOT NULL,
+    activity_type VARCHAR(100) NOT NULL,
+    activity_count BIGINT NOT NULL,
+    first_at TIMESTAMP NOT NULL,
+    last_at TIMESTAMP NOT NULL,
+    -- Upsert target; also serves per-entity lookups, newest day first
+    CONSTRAINT ux_activity_daily_rollups UNIQUE (entity_type, entity_id, activity_date, activity_type)
+);
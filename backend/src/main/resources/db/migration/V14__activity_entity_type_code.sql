@@ -0,0 +1,30 @@
+-- Store activities.entity_type as a SMALLINT code (ActivityEntityType) and make the
+-- timeline index covering, so a timeline page is an index-only scan that never
+-- touches the heap or the JSONB payload. Codes: 1 LEAD, 2 CLIENT, 3 PROJECT.
+
+DO $$
+DECLARE
+    unknown TEXT;
+BEGIN
+    SELECT string_agg(DISTINCT entity_type, ', ') INTO unknown
+    FROM (SELECT entity_type FROM activities
+          UNION ALL
+          SELECT entity_type FROM activity_daily_rollups) t
+    WHERE entity_type NOT IN ('LEAD', 'CLIENT', 'PROJECT');
+    IF unknown IS NOT NULL THEN
+        RAISE EXCEPTION 'Activities reference entity types without a code: %. Add them to ActivityEntityType and this migration first', unknown;
+    END IF;
+END $$;
+
+-- Dropped first so the column rewrite does not rebuild it only to be replaced
+DROP INDEX idx_activities_entity_created_at_id;
+
+ALTER TABLE activities ALTER COLUMN entity_type TYPE SMALLINT
+    USING CASE entity_type WHEN 'LEAD' THEN 1 WHEN 'CLIENT' THEN 2 WHEN 'PROJECT' THEN 3 END;
+
+ALTER TABLE activity_daily_rollups ALTER COLUMN entity_type TYPE SMALLINT
+    USING CASE entity_type WHEN 'LEAD' THEN 1 WHEN 'CLIENT' THEN 2 WHEN 'PROJECT' THEN 3 END;
+
+CREATE INDEX idx_activities_entity_created_at_id
+    ON activities(entity_type, entity_id, created_at DESC, id DESC)
+    INCLUDE (activity_type, created_by);
@@ -0,0 +1,6 @@
+-- Pipeline analytics over lead stage changes: transitions into a stage within a
+-- time range. Partial, so only STAGE_CHANGED activities are indexed; the expression
+-- must match ActivityPayload.StageChanged's JSON field name.
+CREATE INDEX idx_activities_stage_changed
+    ON activities ((payload->>'newStage'), created_at)
+    WHERE activity_type = 'STAGE_CHANGED';
@@ -0,0 +1,17 @@
+-- Activities logged in async mode (app.activity.async.enabled). Each row is written
+-- in the same transaction as the change it records, and ActivityBatchWriter moves
+-- them into activities in batches, deleting them in the transaction that inserts
+-- them, so a crash or a failed insert leaves them here to be retried.
+CREATE TABLE activity_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    entity_type SMALLINT NOT NULL,
+    entity_id BIGINT NOT NULL,
+    activity_type VARCHAR(100) NOT NULL,
+    description TEXT,
+    payload JSONB,
+    created_by BIGINT,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Must match ActivityOutboxEntry's allocationSize (see V9)
+ALTER SEQUENCE activity_outbox_id_seq INCREMENT BY 50;
@@ -0,0 +1,16 @@
+-- ActivityPayload now names its typed variants in a short "_t" tag and reads
+-- untagged documents as Custom. Tag the lead rows written before that, where the
+-- document holds nothing but the variant's own fields, so they still read as Created
+-- ("c") and StageChanged ("sc"); anything else stays untagged and keeps all of its
+-- fields as Custom.
+UPDATE activities SET payload = jsonb_build_object('_t', 'c') || payload
+WHERE activity_type = 'CREATED' AND payload - 'source' = '{}'::jsonb;
+
+UPDATE activities SET payload = jsonb_build_object('_t', 'sc') || payload
+WHERE activity_type = 'STAGE_CHANGED' AND payload - 'oldStage' - 'newStage' = '{}'::jsonb;
+
+UPDATE activity_outbox SET payload = jsonb_build_object('_t', 'c') || payload
+WHERE activity_type = 'CREATED' AND payload - 'source' = '{}'::jsonb;
+
+UPDATE activity_outbox SET payload = jsonb_build_object('_t', 'sc') || payload
+WHERE activity_type = 'STAGE_CHANGED' AND payload - 'oldStage' - 'newStage' = '{}'::jsonb;
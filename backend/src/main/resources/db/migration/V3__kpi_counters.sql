@@ -0,0 +1,33 @@
+-- Materialized KPI counters, maintained by the lead/project write paths
+-- and periodically reconciled against the source tables
+CREATE TABLE kpi_counters (
+    metric VARCHAR(50) NOT NULL,
+    dimension VARCHAR(50) NOT NULL,
+    counter_value BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (metric, dimension)
+);
+
+-- Seed from existing data
+INSERT INTO kpi_counters (metric, dimension, counter_value)
+SELECT 'LEAD_STAGE', stage, COUNT(*) FROM leads GROUP BY stage;
+
+INSERT INTO kpi_counters (metric, dimension, counter_value)
+SELECT 'PROJECT_STATUS', status, COUNT(*) FROM projects GROUP BY status;
+
+INSERT INTO kpi_counters (metric, dimension, counter_value)
+SELECT 'LEAD_CREATED_DAY', TO_CHAR(created_at, 'YYYY-MM-DD'), COUNT(*)
+FROM leads
+WHERE created_at >= CURRENT_DATE - INTERVAL '31 days'
+GROUP BY TO_CHAR(created_at, 'YYYY-MM-DD');
+
+-- Zero rows for the known stages/statuses so write paths always hit an UPDATE
+INSERT INTO kpi_counters (metric, dimension, counter_value)
+SELECT 'LEAD_STAGE', s, 0
+FROM UNNEST(ARRAY['NEW', 'CONTACTED', 'QUALIFIED', 'PROPOSAL', 'NEGOTIATION', 'CONVERTED', 'LOST']) AS s
+ON CONFLICT (metric, dimension) DO NOTHING;
+
+INSERT INTO kpi_counters (metric, dimension, counter_value)
+SELECT 'PROJECT_STATUS', s, 0
+FROM UNNEST(ARRAY['DISCOVERY', 'DEVELOPMENT', 'IN_PROGRESS', 'TESTING', 'DEPLOYED', 'COMPLETED', 'ON_HOLD', 'CANCELLED']) AS s
+ON CONFLICT (metric, dimension) DO NOTHING;
@@ -0,0 +1,3 @@
+-- Version stamp embedded in issued JWTs; bumped whenever a user's role or
+-- enabled flag changes so tokens issued before the change stop validating
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,29 @@
+-- Indexed search for leads and clients, replacing LOWER(col) LIKE '%x%' scans.
+-- search_vector serves word matches (ranked: name > company > email);
+-- the trigram index on search_text serves substring matches of 3+ characters.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE leads
+    ADD COLUMN search_text TEXT GENERATED ALWAYS AS (
+        LOWER(name || ' ' || COALESCE(email, '') || ' ' || COALESCE(company, ''))
+    ) STORED,
+    ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+        SETWEIGHT(TO_TSVECTOR('simple', COALESCE(name, '')), 'A') ||
+        SETWEIGHT(TO_TSVECTOR('simple', COALESCE(company, '')), 'B') ||
+        SETWEIGHT(TO_TSVECTOR('simple', COALESCE(email, '')), 'C')
+    ) STORED;
+
+ALTER TABLE clients
+    ADD COLUMN search_text TEXT GENERATED ALWAYS AS (
+        LOWER(name || ' ' || COALESCE(email, '') || ' ' || COALESCE(company, ''))
+    ) STORED,
+    ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+        SETWEIGHT(TO_TSVECTOR('simple', COALESCE(name, '')), 'A') ||
+        SETWEIGHT(TO_TSVECTOR('simple', COALESCE(company, '')), 'B') ||
+        SETWEIGHT(TO_TSVECTOR('simple', COALESCE(email, '')), 'C')
+    ) STORED;
+
+CREATE INDEX idx_leads_search_vector ON leads USING GIN (search_vector);
+CREATE INDEX idx_leads_search_text_trgm ON leads USING GIN (search_text gin_trgm_ops);
+CREATE INDEX idx_clients_search_vector ON clients USING GIN (search_vector);
+CREATE INDEX idx_clients_search_text_trgm ON clients USING GIN (search_text gin_trgm_ops);
@@ -0,0 +1,11 @@
+-- Composite indexes backing keyset pagination ordered by (created_at DESC, id DESC).
+-- They also serve every query the single-column indexes they replace did.
+DROP INDEX IF EXISTS idx_leads_created_at;
+CREATE INDEX idx_leads_created_at_id ON leads(created_at DESC, id DESC);
+
+CREATE INDEX idx_clients_created_at_id ON clients(created_at DESC, id DESC);
+
+CREATE INDEX idx_projects_created_at_id ON projects(created_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_activities_entity;
+CREATE INDEX idx_activities_entity_created_at_id ON activities(entity_type, entity_id, created_at DESC, id DESC);
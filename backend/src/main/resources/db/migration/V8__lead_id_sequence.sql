@@ -0,0 +1,4 @@
+-- Leads take ids from a pooled sequence so Hibernate can batch bulk inserts
+-- (IDENTITY forces one INSERT round trip per row). Each nextval reserves a
+-- block of 50 ids; the entity's allocationSize must match this increment.
+ALTER SEQUENCE leads_id_seq INCREMENT BY 50;
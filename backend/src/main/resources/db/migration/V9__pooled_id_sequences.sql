@@ -0,0 +1,11 @@
+-- Remaining entities move from IDENTITY to pooled sequences (see V8 for leads):
+-- Hibernate can then assign ids without a round trip per row and batch inserts.
+-- Each increment must match the entity's allocationSize.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE clients_id_seq INCREMENT BY 50;
+ALTER SEQUENCE projects_id_seq INCREMENT BY 50;
+ALTER SEQUENCE milestones_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
+ALTER SEQUENCE activities_id_seq INCREMENT BY 50;
+ALTER SEQUENCE reminders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE notifications_id_seq INCREMENT BY 50;
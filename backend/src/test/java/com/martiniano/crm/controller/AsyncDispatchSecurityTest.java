@@ -0,0 +1,115 @@
+package com.martiniano.crm.controller;
+
+import com.martiniano.crm.entity.Client;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.ClientRepository;
+import com.martiniano.crm.repository.UserRepository;
+import com.martiniano.crm.security.JwtUtil;
+import com.martiniano.crm.service.EmailService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Async responses pass through the security filter chain again on their ASYNC
+ * dispatch, after the request that authenticated them has returned. These requests
+ * carry a real bearer token, so authentication goes through {@code JwtRequestFilter}
+ * rather than a security context installed by the test.
+ */
+@SpringBootTest(properties = "app.live.kpi-interval=3600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AsyncDispatchSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        User admin = new User();
+        admin.setUsername("erin");
+        admin.setEmail("erin@example.com");
+        admin.setPasswordHash("unused");
+        bearer = "Bearer " + jwtUtil.generateToken(userRepository.save(admin));
+    }
+
+    @AfterEach
+    void tearDown() {
+        clientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exportStaysAuthenticatedOnItsAsyncDispatch() throws Exception {
+        Client client = new Client();
+        client.setName("Acme");
+        client.setEmail("acme@example.com");
+        clientRepository.save(client);
+
+        MvcResult started = mockMvc.perform(get("/api/v1/clients/export").param("format", "ndjson")
+                        .header("Authorization", bearer))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsString(StandardCharsets.UTF_8))
+                .startsWith("{")
+                .contains("\"name\":\"Acme\"");
+    }
+
+    @Test
+    void liveStreamStaysAuthenticatedWhenItTimesOut() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/dashboard/stream").header("Authorization", bearer))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // What the container does once the emitter's timeout elapses
+        MockAsyncContext asyncContext = (MockAsyncContext) started.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void exportWithoutATokenIsRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/v1/clients/export"))
+                .andExpect(status().isForbidden());
+    }
+}
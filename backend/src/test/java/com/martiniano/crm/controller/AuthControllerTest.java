@@ -42,7 +42,8 @@ class AuthControllerTest {
                 "mock-jwt-token",
                 "admin",
                 "admin@martiniano.dev",
-                "ADMIN"
+                "ADMIN",
+                "mock-refresh-token"
         );
 
         when(authService.authenticate(any(LoginRequest.class))).thenReturn(response);
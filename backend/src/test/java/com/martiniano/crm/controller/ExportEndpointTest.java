@@ -0,0 +1,152 @@
+package com.martiniano.crm.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martiniano.crm.entity.Client;
+import com.martiniano.crm.entity.Project;
+import com.martiniano.crm.repository.ClientRepository;
+import com.martiniano.crm.repository.ProjectRepository;
+import com.martiniano.crm.service.EmailService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+class ExportEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private Long acmeId;
+
+    @BeforeEach
+    void setUp() {
+        acmeId = saveClient("Acme, Inc.", "acme@example.com", "Says \"hi\"").getId();
+        saveClient("Globex", "globex@example.com", null);
+
+        Project project = new Project();
+        project.setClientId(acmeId);
+        project.setName("Storefront");
+        project.setStartDate(LocalDate.of(2026, 3, 1));
+        project.setBudgetAmount(new BigDecimal("12500.50"));
+        projectRepository.save(project);
+    }
+
+    @AfterEach
+    void tearDown() {
+        projectRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    @Test
+    void exportsCsvWithHeaderAndQuotedValues() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/clients/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andReturn();
+
+        List<String> lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).startsWith("id,name,company,primaryContactName,email,");
+        assertThat(lines.get(1)).startsWith(acmeId + ",\"Acme, Inc.\",\"Says \"\"hi\"\"\",,acme@example.com,");
+        assertThat(lines.get(2)).contains(",Globex,,,globex@example.com,");
+    }
+
+    @Test
+    void exportsGzippedNdjson() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/projects/export").param("format", "ndjson").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        List<String> lines = gunzip(result.getResponse().getContentAsByteArray()).lines().toList();
+        assertThat(lines).hasSize(1);
+        JsonNode row = objectMapper.readTree(lines.get(0));
+        assertThat(row.get("clientId").asLong()).isEqualTo(acmeId);
+        assertThat(row.get("name").asText()).isEqualTo("Storefront");
+        assertThat(row.get("startDate").asText()).isEqualTo("2026-03-01");
+        assertThat(row.get("budgetAmount").decimalValue()).isEqualByComparingTo("12500.50");
+        assertThat(row.get("targetDate").isNull()).isTrue();
+    }
+
+    @Test
+    void exportsOneNdjsonObjectPerLineWithTheExportTimeout() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/clients/export").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(1_800_000L);
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("}\n");
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        assertThat(objectMapper.readTree(lines.get(1)).get("name").asText()).isEqualTo("Globex");
+    }
+
+    @Test
+    void rejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/v1/leads/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Client saveClient(String name, String email, String company) {
+        Client client = new Client();
+        client.setName(name);
+        client.setEmail(email);
+        client.setCompany(company);
+        return clientRepository.save(client);
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
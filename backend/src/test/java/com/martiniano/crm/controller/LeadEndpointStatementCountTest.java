@@ -0,0 +1,146 @@
+package com.martiniano.crm.controller;
+
+import com.martiniano.crm.entity.Lead;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.LeadRepository;
+import com.martiniano.crm.repository.UserRepository;
+import com.martiniano.crm.service.EmailService;
+import com.martiniano.crm.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each lead read endpoint issues, so an
+ * association that starts loading row by row fails here instead of in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+class LeadEndpointStatementCountTest {
+
+    private static final int LEADS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private EmailService emailService;
+
+    private Long firstLeadId;
+
+    @BeforeEach
+    void setUp() {
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User owner = new User();
+            owner.setUsername("owner" + i);
+            owner.setEmail("owner" + i + "@example.com");
+            owner.setPasswordHash("hash");
+            owners.add(userRepository.save(owner));
+        }
+        for (int i = 0; i < LEADS; i++) {
+            Lead lead = new Lead();
+            lead.setName("Lead " + i);
+            lead.setEmail("lead" + i + "@example.com");
+            lead.setMessage("Hello");
+            lead.setAssignedTo(owners.get(i % owners.size()));
+            Lead saved = leadRepository.save(lead);
+            if (firstLeadId == null) {
+                firstLeadId = saved.getId();
+            }
+        }
+        SqlStatementCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        leadRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void listIssuesSelectAndCount() throws Exception {
+        mockMvc.perform(get("/api/v1/leads").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(10));
+
+        SqlStatementCounter.assertStatementCount(2);
+    }
+
+    @Test
+    void stageFilterIssuesSelectAndCount() throws Exception {
+        mockMvc.perform(get("/api/v1/leads").param("stage", "NEW").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(LEADS));
+
+        SqlStatementCounter.assertStatementCount(2);
+    }
+
+    @Test
+    void searchIssuesSelectAndCount() throws Exception {
+        mockMvc.perform(get("/api/v1/leads").param("search", "lead").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(LEADS));
+
+        SqlStatementCounter.assertStatementCount(2);
+    }
+
+    @Test
+    void scrollIssuesOneSelect() throws Exception {
+        mockMvc.perform(get("/api/v1/leads/scroll").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        SqlStatementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void detailFetchesAssigneeInSameSelect() throws Exception {
+        mockMvc.perform(get("/api/v1/leads/{id}", firstLeadId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignedTo.username").value("owner0"))
+                .andExpect(jsonPath("$.assignedTo.passwordHash").doesNotExist());
+
+        SqlStatementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void entityPagesFetchAssigneesWithTheLeads() {
+        List<String> assignees = transactionTemplate.execute(status -> {
+            Page<Lead> page = leadRepository.findByStage("NEW", PageRequest.of(0, 10));
+            return page.map(lead -> lead.getAssignedTo().getUsername()).getContent();
+        });
+
+        assertThat(assignees).hasSize(10).doesNotContainNull();
+        SqlStatementCounter.assertStatementCount(2);
+    }
+}
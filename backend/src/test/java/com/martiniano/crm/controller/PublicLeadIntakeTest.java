@@ -0,0 +1,142 @@
+package com.martiniano.crm.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martiniano.crm.repository.ActivityRepository;
+import com.martiniano.crm.repository.KpiCounterRepository;
+import com.martiniano.crm.repository.LeadRepository;
+import com.martiniano.crm.repository.NotificationRepository;
+import com.martiniano.crm.service.EmailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.leads.public.rate-limit.enabled=true",
+        "app.leads.public.rate-limit.ip.capacity=3",
+        "app.leads.public.rate-limit.ip.refill-interval=60000",
+        "app.leads.public.rate-limit.email.capacity=3",
+        "app.leads.public.rate-limit.email.refill-interval=60000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PublicLeadIntakeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private KpiCounterRepository kpiCounterRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        activityRepository.deleteAll();
+        leadRepository.deleteAll();
+        kpiCounterRepository.deleteAll();
+    }
+
+    @Test
+    void identicalSubmissionReturnsTheFirstLead() throws Exception {
+        double before = meterRegistry.counter("leads.public.deduplicated").count();
+
+        JsonNode first = body(submit("10.0.1.1", "dup@example.com", "Please quote a new website")
+                .andExpect(status().isCreated()));
+        // Neither the address nor the case of the email makes a submission new
+        JsonNode second = body(submit("10.0.1.2", "Dup@Example.com", "Please quote a new website")
+                .andExpect(status().isOk()));
+
+        assertThat(second.get("leadId").asLong()).isEqualTo(first.get("leadId").asLong());
+        assertThat(leadRepository.count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("leads.public.deduplicated").count() - before).isEqualTo(1);
+
+        submit("10.0.1.3", "dup@example.com", "Actually, a mobile app instead")
+                .andExpect(status().isCreated());
+        assertThat(leadRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsAnAddressOnceItsBucketIsEmpty() throws Exception {
+        double before = meterRegistry.counter("leads.public.rejected", "limit", "ip").count();
+
+        for (int i = 0; i < 3; i++) {
+            submit("10.0.2.1", "ip" + i + "@example.com", "Hello from the same address")
+                    .andExpect(status().isCreated());
+        }
+        submit("10.0.2.1", "ip3@example.com", "Hello from the same address")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"));
+        submit("10.0.2.2", "ip3@example.com", "Hello from another address")
+                .andExpect(status().isCreated());
+
+        assertThat(leadRepository.count()).isEqualTo(4);
+        assertThat(meterRegistry.counter("leads.public.rejected", "limit", "ip").count() - before).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsAnEmailAcrossAddresses() throws Exception {
+        double before = meterRegistry.counter("leads.public.rejected", "limit", "email").count();
+
+        submit("10.0.3.1", "same@example.com", "First message from me")
+                .andExpect(status().isCreated());
+        submit("10.0.3.2", "same@example.com", "Second message from me")
+                .andExpect(status().isCreated());
+        submit("10.0.3.3", "same@example.com", "Third message from me")
+                .andExpect(status().isCreated());
+        submit("10.0.3.4", "Same@Example.com", "Fourth message from me")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        assertThat(leadRepository.count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("leads.public.rejected", "limit", "email").count() - before).isEqualTo(1);
+    }
+
+    private ResultActions submit(String clientIp, String email, String message) throws Exception {
+        String json = objectMapper.writeValueAsString(Map.of(
+                "name", "Visitor", "email", email, "message", message));
+        return mockMvc.perform(post("/api/v1/leads/public")
+                .with(request -> {
+                    request.setRemoteAddr(clientIp);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json));
+    }
+
+    private JsonNode body(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,176 @@
+package com.martiniano.crm.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martiniano.crm.entity.RefreshToken;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.RefreshTokenRepository;
+import com.martiniano.crm.repository.UserRepository;
+import com.martiniano.crm.service.EmailService;
+import com.martiniano.crm.service.RefreshTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.jwt.refresh-grace=300",
+        "app.jwt.refresh-cleanup.batch-size=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RefreshTokenFlowTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("dana");
+        user.setEmail("dana@example.com");
+        user.setPasswordHash(new BCryptPasswordEncoder(4).encode("s3cret"));
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void refreshRotatesTheTokenAndIssuesAWorkingAccessToken() throws Exception {
+        JsonNode login = body(login().andExpect(status().isOk()));
+
+        JsonNode refreshed = body(refresh(login.get("refreshToken").asText()).andExpect(status().isOk()));
+
+        assertThat(refreshed.get("username").asText()).isEqualTo("dana");
+        assertThat(refreshed.get("refreshToken").asText()).isNotEqualTo(login.get("refreshToken").asText());
+        mockMvc.perform(get("/api/v1/auth/me").header("Authorization", "Bearer " + refreshed.get("token").asText()))
+                .andExpect(status().isOk());
+        refresh(refreshed.get("refreshToken").asText()).andExpect(status().isOk());
+    }
+
+    @Test
+    void retryWithinTheGraceWindowGetsTheSameAnswer() throws Exception {
+        String first = body(login()).get("refreshToken").asText();
+
+        JsonNode once = body(refresh(first).andExpect(status().isOk()));
+        JsonNode again = body(refresh(first).andExpect(status().isOk()));
+
+        assertThat(again.get("refreshToken").asText()).isEqualTo(once.get("refreshToken").asText());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() throws Exception {
+        String first = body(login()).get("refreshToken").asText();
+        String second = body(refresh(first)).get("refreshToken").asText();
+        String otherSession = body(login()).get("refreshToken").asText();
+        double reusedBefore = meterRegistry.counter("auth.refresh", "outcome", "reused").count();
+
+        Thread.sleep(400);
+        refresh(first).andExpect(status().isUnauthorized());
+
+        refresh(second).andExpect(status().isUnauthorized());
+        assertThat(meterRegistry.counter("auth.refresh", "outcome", "reused").count() - reusedBefore).isEqualTo(1);
+        // Other logins of the same user are separate families
+        refresh(otherSession).andExpect(status().isOk());
+    }
+
+    @Test
+    void logoutAndDisablingEndTheSession() throws Exception {
+        String loggedOut = body(login()).get("refreshToken").asText();
+        mockMvc.perform(post("/api/v1/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", loggedOut))))
+                .andExpect(status().isNoContent());
+        refresh(loggedOut).andExpect(status().isUnauthorized());
+
+        String disabled = body(login()).get("refreshToken").asText();
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(user.getId()).orElseThrow().setEnabled(false));
+        refresh(disabled).andExpect(status().isUnauthorized());
+
+        refresh("not-a-token").andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void purgeDeletesExpiredTokensInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            saveToken(i, now.minusMinutes(i + 1));
+        }
+        saveToken(99, now.plusDays(1));
+
+        assertThat(refreshTokenService.purgeExpired()).isEqualTo(5);
+        assertThat(refreshTokenRepository.count()).isEqualTo(1);
+        assertThat(refreshTokenService.purgeExpired()).isZero();
+    }
+
+    private void saveToken(int n, LocalDateTime expiresAt) {
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(new byte[]{(byte) n});
+        token.setUser(user);
+        token.setFamilyId((long) n);
+        token.setExpiresAt(expiresAt);
+        refreshTokenRepository.save(token);
+    }
+
+    private ResultActions login() throws Exception {
+        return mockMvc.perform(post("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("email", "dana@example.com", "password", "s3cret"))));
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/v1/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))));
+    }
+
+    private JsonNode body(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,45 @@
+package com.martiniano.crm.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.martiniano.crm.dto.CursorPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SparseFieldsetsTest {
+
+    record Row(Long id, String name, String email, String stage) {
+    }
+
+    private final SparseFieldsets sparseFieldsets = new SparseFieldsets(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void keepsRequestedFieldsAndId() {
+        Page<?> page = sparseFieldsets.apply(new PageImpl<>(List.of(new Row(1L, "Ada", "ada@example.com", "NEW"))), "name, stage,unknown");
+
+        assertThat(page.getContent()).isEqualTo(List.of(Map.of("id", 1L, "name", "Ada", "stage", "NEW")));
+    }
+
+    @Test
+    void returnsItemsUnchangedWithoutFields() {
+        Page<Row> original = new PageImpl<>(List.of(new Row(1L, "Ada", "ada@example.com", "NEW")));
+
+        assertThat(sparseFieldsets.apply(original, " ")).isSameAs(original);
+    }
+
+    @Test
+    void keepsCursorWhenSelectingFields() {
+        CursorPage<Row> original = new CursorPage<>(List.of(new Row(2L, "Bob", "bob@example.com", "LOST")), "abc", true);
+
+        CursorPage<?> page = sparseFieldsets.apply(original, "email");
+
+        assertThat(page.getItems()).isEqualTo(List.of(Map.of("id", 2L, "email", "bob@example.com")));
+        assertThat(page.getNextCursor()).isEqualTo("abc");
+    }
+}
@@ -0,0 +1,59 @@
+package com.martiniano.crm.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActivityPayloadTest {
+
+    // A plain mapper, like the one Hibernate uses for JSON columns: unknown fields fail
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectWriter writer = objectMapper.writerFor(ActivityPayload.class);
+    private final ObjectReader reader = objectMapper.readerFor(ActivityPayload.class);
+
+    @Test
+    void tagsRecordsAndOmitsNullFields() throws Exception {
+        assertThat(writer.writeValueAsString(new ActivityPayload.StageChanged("NEW", "WON")))
+                .isEqualTo("{\"_t\":\"sc\",\"oldStage\":\"NEW\",\"newStage\":\"WON\"}");
+        assertThat(writer.writeValueAsString(new ActivityPayload.Created(null))).isEqualTo("{\"_t\":\"c\"}");
+    }
+
+    @Test
+    void storesCustomFieldsUntagged() throws Exception {
+        assertThat(writer.writeValueAsString(new ActivityPayload.Custom(Map.of("minutes", 15))))
+                .isEqualTo("{\"minutes\":15}");
+    }
+
+    @Test
+    void readsBackWhatItWrites() throws Exception {
+        for (ActivityPayload payload : new ActivityPayload[] {
+                new ActivityPayload.Created("web"),
+                new ActivityPayload.StageChanged("NEW", "WON"),
+                new ActivityPayload.StageChanged(null, "WON"),
+                new ActivityPayload.Custom(Map.of("minutes", 15)),
+                new ActivityPayload.Custom(Map.of("oldStage", "NEW", "newStage", "WON"))}) {
+            assertThat((ActivityPayload) reader.readValue(writer.writeValueAsString(payload))).isEqualTo(payload);
+        }
+    }
+
+    @Test
+    void keepsEveryFieldOfUntaggedDocuments() throws Exception {
+        assertThat((ActivityPayload) reader.readValue("{\"channel\":\"phone\",\"minutes\":15}"))
+                .isEqualTo(new ActivityPayload.Custom(Map.of("channel", "phone", "minutes", 15)));
+        // Fields of a typed variant do not make a document that variant
+        assertThat((ActivityPayload) reader.readValue("{\"minutes\":15,\"newStage\":\"WON\"}"))
+                .isEqualTo(new ActivityPayload.Custom(Map.of("minutes", 15, "newStage", "WON")));
+    }
+
+    @Test
+    void readsTaggedDocumentsWithFieldsTheVariantDoesNotDeclare() throws Exception {
+        // e.g. a row written by a newer version; one such row must not fail a timeline page
+        assertThat((ActivityPayload) reader.readValue("{\"_t\":\"sc\",\"oldStage\":\"NEW\",\"newStage\":\"WON\",\"note\":\"x\"}"))
+                .isEqualTo(new ActivityPayload.StageChanged("NEW", "WON"));
+    }
+}
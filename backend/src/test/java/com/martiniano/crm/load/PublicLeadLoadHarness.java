@@ -0,0 +1,174 @@
+package com.martiniano.crm.load;
+
+import com.martiniano.crm.PortfolioCrmApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of {@code POST /api/v1/leads/public}, comparing platform and
+ * virtual request threads. For each mode it boots the application on a random port,
+ * runs {@code clients} concurrent clients (1000 by default), each sending its next
+ * request as soon as the previous one answers, and prints throughput and latency
+ * percentiles. Only the measurement window counts; the warm-up is discarded.
+ *
+ * Run it from the backend directory after {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.martiniano.crm.load.PublicLeadLoadHarness
+ * </pre>
+ * System properties: {@code harness.clients}, {@code harness.warmup} and
+ * {@code harness.duration} (seconds), {@code harness.modes} ({@code platform,virtual}),
+ * {@code harness.profile} ({@code test}). The default profile uses in-memory H2, where
+ * requests hardly wait on I/O, so the gap between the modes there is a lower bound. To
+ * measure against PostgreSQL, pass an empty profile plus the usual
+ * {@code -Dspring.datasource.*} properties. {@code -Dharness.url=http://host:8080}
+ * targets an instance that is already running instead of booting one.
+ */
+public final class PublicLeadLoadHarness {
+
+    private static final String PATH = "/api/v1/leads/public";
+
+    private PublicLeadLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("harness.clients", 1000);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("harness.warmup", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("harness.duration", 30));
+        String externalUrl = System.getProperty("harness.url");
+
+        List<String> rows = new ArrayList<>();
+        if (externalUrl != null) {
+            rows.add(run("external", externalUrl, clients, warmup, duration).format());
+        } else {
+            for (String mode : System.getProperty("harness.modes", "platform,virtual").split(",")) {
+                try (ConfigurableApplicationContext context = start(mode.trim())) {
+                    String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                    rows.add(run(mode.trim(), baseUrl, clients, warmup, duration).format());
+                }
+            }
+        }
+
+        System.out.printf("%n%d clients, %ds measured%n", clients, duration.toSeconds());
+        System.out.printf("%-10s %12s %10s %10s %10s %8s%n", "mode", "requests/s", "p50 ms", "p99 ms", "max ms", "errors");
+        rows.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        boolean virtual = switch (mode) {
+            case "virtual" -> true;
+            case "platform" -> false;
+            default -> throw new IllegalArgumentException("Unknown mode " + mode + ", expected platform or virtual");
+        };
+        return new SpringApplicationBuilder(PortfolioCrmApplication.class)
+                .profiles(System.getProperty("harness.profile", "test").split(","))
+                // Command-line arguments, so they win over application.yml
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        // Keep SMTP out of the measurement: notifications wait for the digest poll
+                        "--app.notifications.digest.enabled=true",
+                        // Every client shares one address, which the per-IP limit would throttle
+                        "--app.leads.public.rate-limit.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+
+    private static Result run(String mode, String baseUrl, int clients, Duration warmup, Duration duration) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        URI uri = URI.create(baseUrl + PATH);
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        List<long[]> perClient = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(pool.submit(() -> {
+                    LatencyLog latencies = new LatencyLog();
+                    while (System.nanoTime() < stopAt) {
+                        long n = sequence.incrementAndGet();
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .timeout(Duration.ofSeconds(60))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(
+                                        "{\"name\":\"Load " + n + "\",\"email\":\"load" + n + "@example.com\","
+                                        + "\"message\":\"Load test lead number " + n + "\"}"))
+                                .build();
+                        long started = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 201;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long finished = System.nanoTime();
+                        if (started >= measureFrom && finished <= stopAt) {
+                            if (ok) {
+                                latencies.add(finished - started);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                    return latencies.toArray();
+                }));
+            }
+            for (Future<long[]> future : futures) {
+                perClient.add(future.get());
+            }
+        }
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(mode, all, errors.get(), duration);
+    }
+
+    private static final class LatencyLog {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private record Result(String mode, long[] sortedNanos, long errors, Duration duration) {
+
+        String format() {
+            double throughput = sortedNanos.length / (double) duration.toSeconds();
+            return String.format("%-10s %12.0f %10.1f %10.1f %10.1f %8d",
+                    mode, throughput, percentile(0.50), percentile(0.99), percentile(1.0), errors);
+        }
+
+        private double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.martiniano.crm.load;
+
+import com.martiniano.crm.entity.Activity;
+import com.martiniano.crm.entity.ActivityEntityType;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.ActivityRepository;
+import com.martiniano.crm.repository.KpiCounterRepository;
+import com.martiniano.crm.repository.LeadRepository;
+import com.martiniano.crm.repository.NotificationRepository;
+import com.martiniano.crm.repository.UserRepository;
+import com.martiniano.crm.security.JwtUtil;
+import com.martiniano.crm.service.ActivityLoggedEvent;
+import com.martiniano.crm.service.FakeMailSender;
+import com.martiniano.crm.service.LiveUpdateHub;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.threads.virtual.enabled=true",
+                "spring.datasource.hikari.maximum-pool-size=" + VirtualThreadPinningTest.POOL_SIZE,
+                "spring.datasource.hikari.minimum-idle=" + VirtualThreadPinningTest.POOL_SIZE
+        })
+@ActiveProfiles("test")
+class VirtualThreadPinningTest {
+
+    static final int POOL_SIZE = 10;
+
+    /**
+     * Requests in flight at once, below the pool size so that background workers also
+     * find a free connection. Each request needs one connection at a time, so none
+     * should wait out the default connection-timeout; one that does means a connection
+     * is held longer than the work that needs it, not that the burst outran the pool.
+     */
+    private static final int CONCURRENT_CLIENTS = POOL_SIZE - 2;
+
+    @TestConfiguration
+    static class MailConfig {
+        @Bean
+        @Primary
+        FakeMailSender fakeMailSender() {
+            return new FakeMailSender();
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private KpiCounterRepository kpiCounterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        activityRepository.deleteAll();
+        leadRepository.deleteAll();
+        kpiCounterRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    /**
+     * Sends a burst of public lead submissions through Tomcat on virtual threads; none
+     * may pin its carrier, e.g. in a {@code synchronized} block around JDBC or SMTP.
+     */
+    @Test
+    void publicLeadBurstDoesNotPinCarrierThreads() throws Exception {
+        assertNoPinningInOurCode(() -> {
+            HttpClient client = HttpClient.newHttpClient();
+            Semaphore inFlight = new Semaphore(CONCURRENT_CLIENTS);
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<Integer>> responses = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    int n = i;
+                    responses.add(clients.submit(() -> {
+                        inFlight.acquire();
+                        try {
+                            return client.send(leadRequest(n), HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                }
+                for (Future<Integer> response : responses) {
+                    assertThat(response.get()).isEqualTo(201);
+                }
+            }
+        });
+    }
+
+    /**
+     * Opens an activity stream whose client stops reading, then pushes updates until
+     * the server's socket buffer is full and every send blocks. The blocked sends must
+     * not hold a carrier: {@code ResponseBodyEmitter.send} is {@code synchronized}, and
+     * Tomcat's write waits inside it with {@code Object.wait}, which JFR does not report
+     * as pinning. So the test also checks that the blocked send is on a platform thread.
+     */
+    @Test
+    void slowLiveStreamDoesNotPinCarrierThreads() throws Exception {
+        User admin = new User();
+        admin.setUsername("slow-reader");
+        admin.setEmail("slow-reader@example.com");
+        admin.setPasswordHash("unused");
+        String token = jwtUtil.generateToken(userRepository.save(admin));
+
+        assertNoPinningInOurCode(() -> {
+            try (Socket socket = new Socket()) {
+                socket.setReceiveBufferSize(4096);
+                socket.connect(new InetSocketAddress("localhost", port));
+                OutputStream out = socket.getOutputStream();
+                out.write(("GET /api/v1/activities/LEAD/1/stream HTTP/1.1\r\nHost: localhost\r\n" +
+                        "Authorization: Bearer " + token + "\r\nAccept: text/event-stream\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                awaitResponseHeaders(socket.getInputStream());
+
+                // Well under the subscriber buffer, so the stream is not evicted first
+                String description = "x".repeat(64 * 1024);
+                for (int i = 0; i < 100; i++) {
+                    Activity activity = new Activity();
+                    activity.setEntityType(ActivityEntityType.LEAD);
+                    activity.setEntityId(1L);
+                    activity.setActivityType("NOTE");
+                    activity.setDescription(description);
+                    liveUpdateHub.onActivityLogged(new ActivityLoggedEvent(activity));
+                }
+                // Virtual threads are not listed, so this finds the send only on a platform writer
+                assertThat(awaitThreadBlockedIn(ResponseBodyEmitter.class.getName() + ".send"))
+                        .as("platform thread blocked in the stream's send")
+                        .isNotNull()
+                        .satisfies(thread -> assertThat(thread.isVirtual()).isFalse());
+            }
+        });
+    }
+
+    private static Thread awaitThreadBlockedIn(String method) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            for (Map.Entry<Thread, StackTraceElement[]> thread : Thread.getAllStackTraces().entrySet()) {
+                if (Arrays.stream(thread.getValue()).anyMatch(frame -> (frame.getClassName() + "." + frame.getMethodName()).equals(method))
+                        && thread.getKey().getState() != Thread.State.RUNNABLE) {
+                    return thread.getKey();
+                }
+            }
+            Thread.sleep(50);
+        }
+        return null;
+    }
+
+    private static void awaitResponseHeaders(InputStream in) throws Exception {
+        StringBuilder head = new StringBuilder();
+        int b;
+        while (head.indexOf("\r\n\r\n") < 0 && (b = in.read()) >= 0) {
+            head.append((char) b);
+        }
+        assertThat(head.toString()).startsWith("HTTP/1.1 200");
+    }
+
+    /**
+     * Runs the workload under a JFR recording and fails if any virtual thread parked
+     * while pinned to its carrier inside our code. A deliberately pinned thread first
+     * proves the recording sees pinning at all. The {@code pinning-trace} Maven profile
+     * also prints each pinned stack through {@code -Djdk.tracePinnedThreads}.
+     */
+    private static void assertNoPinningInOurCode(Workload workload) throws Exception {
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+
+            Thread.ofVirtual().start(VirtualThreadPinningTest::pinDeliberately).join();
+            workload.run();
+            // Events are delivered asynchronously; flush them before stopping
+            Thread.sleep(1500);
+        }
+
+        assertThat(pinned).anyMatch(event -> inMethod(event, "pinDeliberately"));
+        List<String> hazards = pinned.stream()
+                .filter(event -> !inMethod(event, "pinDeliberately"))
+                .filter(event -> frames(event).anyMatch(frame -> frame.startsWith("com.martiniano.crm.")))
+                .map(event -> frames(event).limit(30).collect(Collectors.joining("\n  ", "pinned for " + event.getDuration() + "\n  ", "")))
+                .toList();
+        assertThat(hazards).isEmpty();
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        void run() throws Exception;
+    }
+
+    private static void pinDeliberately() {
+        Object monitor = new Object();
+        synchronized (monitor) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static boolean inMethod(RecordedEvent event, String method) {
+        return frames(event).anyMatch(frame -> frame.endsWith("." + method));
+    }
+
+    private static Stream<String> frames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return Stream.empty();
+        }
+        return event.getStackTrace().getFrames().stream()
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName());
+    }
+
+    private HttpRequest leadRequest(int n) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/leads/public"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"name\":\"Lead " + n + "\",\"email\":\"lead" + n + "@example.com\",\"message\":\"Need a new website\"}"))
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.martiniano.crm.repository;
+
+import com.martiniano.crm.entity.Client;
+import com.martiniano.crm.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchInsertTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @AfterEach
+    void tearDown() {
+        clientRepository.deleteAll();
+    }
+
+    @Test
+    void sequenceIdsLetHibernateBatchInserts() {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Client client = new Client();
+            client.setName("Client " + i);
+            client.setEmail("client" + i + "@example.com");
+            clients.add(client);
+        }
+        SqlStatementCounter.reset();
+
+        clientRepository.saveAll(clients);
+
+        assertThat(clients).extracting(Client::getId).doesNotContainNull().doesNotHaveDuplicates();
+        // Batched inserts reuse one prepared statement for all three batches of 50;
+        // with batching off (or IDENTITY ids) every row prepares and runs its own INSERT
+        assertThat(SqlStatementCounter.statements())
+                .filteredOn(sql -> sql.toLowerCase().startsWith("insert into clients"))
+                .hasSize(1);
+        assertThat(SqlStatementCounter.statements())
+                .filteredOn(sql -> sql.toLowerCase().contains("clients_id_seq"))
+                .hasSizeLessThanOrEqualTo(4);
+    }
+}
@@ -0,0 +1,173 @@
+package com.martiniano.crm.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of 10k lead-shaped inserts in one transaction, issued the way Hibernate
+ * does for each id strategy. {@code identityPerRow} is the old {@code IDENTITY} path:
+ * one INSERT round trip per row, reading the generated key back. {@code pooledSequenceBatched}
+ * is the path the pooled sequences enable: one {@code nextval} per 50 ids and JDBC
+ * batches of {@code hibernate.jdbc.batch_size} rows. Scores are rows per second.
+ *
+ * The default target is in-memory H2, where a round trip costs almost nothing, so the
+ * gap there is a lower bound. Point it at PostgreSQL to see the network effect:
+ * {@code -p jdbcUrl=jdbc:postgresql://localhost:5432/portfolio_crm?reWriteBatchedInserts=true
+ * -p user=portfolio -p password=portfolio_dev}. The benchmark uses its own
+ * {@code bench_*} tables and drops them afterwards.
+ *
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.martiniano.crm.repository.InsertBatchingBenchmark},
+ * or call {@link #main} from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBatchingBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int BATCH_SIZE = 50;
+
+    private static final String IDENTITY_INSERT = "INSERT INTO bench_identity_leads " +
+            "(name, email, message, source, stage, created_at) VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+    private static final String SEQUENCE_INSERT = "INSERT INTO bench_sequence_leads " +
+            "(id, name, email, message, source, stage, created_at) VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+
+    @Param("jdbc:h2:mem:insert-bench;DB_CLOSE_DELAY=-1")
+    public String jdbcUrl;
+
+    @Param("sa")
+    public String user;
+
+    @Param("")
+    public String password;
+
+    private Connection connection;
+    private String nextValSql;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        nextValSql = jdbcUrl.startsWith("jdbc:postgresql:")
+                ? "SELECT nextval('bench_leads_seq')"
+                : "SELECT NEXT VALUE FOR bench_leads_seq";
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_identity_leads");
+            ddl.execute("DROP TABLE IF EXISTS bench_sequence_leads");
+            ddl.execute("DROP SEQUENCE IF EXISTS bench_leads_seq");
+            String columns = "name VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL, message TEXT NOT NULL, " +
+                    "source VARCHAR(100) NOT NULL, stage VARCHAR(50) NOT NULL, created_at TIMESTAMP NOT NULL";
+            ddl.execute("CREATE TABLE bench_identity_leads (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " + columns + ")");
+            ddl.execute("CREATE SEQUENCE bench_leads_seq INCREMENT BY " + ALLOCATION_SIZE);
+            ddl.execute("CREATE TABLE bench_sequence_leads (id BIGINT PRIMARY KEY, " + columns + ")");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DELETE FROM bench_identity_leads");
+            ddl.execute("DELETE FROM bench_sequence_leads");
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE bench_identity_leads");
+            ddl.execute("DROP TABLE bench_sequence_leads");
+            ddl.execute("DROP SEQUENCE bench_leads_seq");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long identityPerRow() throws SQLException {
+        long lastId = 0;
+        try (PreparedStatement insert = connection.prepareStatement(IDENTITY_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                bind(insert, i, 1);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long pooledSequenceBatched() throws SQLException {
+        long nextId = 0;
+        long hi = 0;
+        try (PreparedStatement nextVal = connection.prepareStatement(nextValSql);
+             PreparedStatement insert = connection.prepareStatement(SEQUENCE_INSERT)) {
+            for (int i = 0; i < ROWS; i++) {
+                if (nextId == hi) {
+                    try (ResultSet rs = nextVal.executeQuery()) {
+                        rs.next();
+                        hi = rs.getLong(1);
+                    }
+                    nextId = hi - ALLOCATION_SIZE;
+                }
+                insert.setLong(1, ++nextId);
+                bind(insert, i, 2);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return nextId;
+    }
+
+    private static void bind(PreparedStatement insert, int row, int first) throws SQLException {
+        insert.setString(first, "Lead " + row);
+        insert.setString(first + 1, "lead" + row + "@example.com");
+        insert.setString(first + 2, "Imported from a campaign export");
+        insert.setString(first + 3, "import");
+        insert.setString(first + 4, "NEW");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InsertBatchingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
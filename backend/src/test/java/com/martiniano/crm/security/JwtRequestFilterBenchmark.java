@@ -0,0 +1,104 @@
+package com.martiniano.crm.security;
+
+import com.martiniano.crm.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-request authentication cost of {@link JwtRequestFilter}, before and after the
+ * verification cache. {@code legacy} reproduces the old path: the signing key was
+ * rebuilt for each of three separate parses, plus one user lookup. Repository calls
+ * are stubbed, so the numbers cover CPU cost only; in production {@code legacy} also
+ * pays a database round trip per request, while the other paths only look up the
+ * user's token version once per {@code app.jwt.user-version.ttl}.
+ *
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.martiniano.crm.security.JwtRequestFilterBenchmark},
+ * or call {@link #main} from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long-for-hs256";
+
+    private String token;
+    private CustomUserDetailsService userDetailsService;
+    private JwtRequestFilter uncachedFilter;
+    private JwtRequestFilter cachedFilter;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = JwtRequestFilterTest.newJwtUtil(SECRET);
+        token = jwtUtil.generateToken(JwtRequestFilterTest.user(1L, "alice", 0));
+        userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(
+                new User("alice", "hash", List.of()));
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findActiveTokenVersion(1L)).thenReturn(Optional.of(0));
+        UserVersionCache userVersionCache = new UserVersionCache(userRepository, 10_000, 60_000);
+        // A zero TTL expires every entry on insert, leaving only the single-parse path
+        uncachedFilter = new JwtRequestFilter(jwtUtil, new VerifiedTokenCache(10_000, 0), userVersionCache);
+        cachedFilter = new JwtRequestFilter(jwtUtil, new VerifiedTokenCache(10_000, 60_000), userVersionCache);
+        cachedFilter.resolvePrincipal(token);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyParse(token).getSubject();
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        return legacyParse(token).getSubject().equals(userDetails.getUsername())
+                && legacyParse(token).getExpiration().after(new Date());
+    }
+
+    @Benchmark
+    public UserDetails singleParse() {
+        return uncachedFilter.resolvePrincipal(token);
+    }
+
+    @Benchmark
+    public UserDetails cached() {
+        return cachedFilter.resolvePrincipal(token);
+    }
+
+    private static Claims legacyParse(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtRequestFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.martiniano.crm.security;
+
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.entity.UserVersionChangedEvent;
+import com.martiniano.crm.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtRequestFilterTest {
+
+    private static final String SECRET = "test-secret-key-for-unit-tests-must-be-at-least-256-bits-long";
+
+    private JwtUtil jwtUtil;
+    private UserRepository userRepository;
+    private UserVersionCache userVersionCache;
+    private JwtRequestFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(SECRET);
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findActiveTokenVersion(1L)).thenReturn(Optional.of(0));
+        userVersionCache = new UserVersionCache(userRepository, 100, 60_000);
+        filter = new JwtRequestFilter(jwtUtil, new VerifiedTokenCache(100, 60_000), userVersionCache);
+    }
+
+    @Test
+    void principalIsBuiltFromClaimsWithOneVersionLookup() {
+        String token = jwtUtil.generateToken(user(1L, "alice", 0));
+
+        UserDetails principal = filter.resolvePrincipal(token);
+        filter.resolvePrincipal(token);
+
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(principal.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        verify(userRepository, times(1)).findActiveTokenVersion(anyLong());
+    }
+
+    @Test
+    void bumpedVersionRevokesCachedToken() {
+        String token = jwtUtil.generateToken(user(1L, "alice", 0));
+        assertThat(filter.resolvePrincipal(token)).isNotNull();
+
+        when(userRepository.findActiveTokenVersion(1L)).thenReturn(Optional.of(1));
+        userVersionCache.onUserVersionChanged(new UserVersionChangedEvent(1L));
+
+        assertThat(filter.resolvePrincipal(token)).isNull();
+        assertThat(filter.resolvePrincipal(jwtUtil.generateToken(user(1L, "alice", 1)))).isNotNull();
+    }
+
+    @Test
+    void disabledOrMissingUserIsRejected() {
+        when(userRepository.findActiveTokenVersion(2L)).thenReturn(Optional.empty());
+
+        assertThat(filter.resolvePrincipal(jwtUtil.generateToken(user(2L, "bob", 0)))).isNull();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        String forged = newJwtUtil(SECRET.replace('t', 'x')).generateToken(user(1L, "alice", 0));
+
+        assertThat(filter.resolvePrincipal(forged)).isNull();
+        verify(userRepository, times(0)).findActiveTokenVersion(anyLong());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtUtil expiring = newJwtUtil(SECRET);
+        ReflectionTestUtils.setField(expiring, "expiration", -1000L);
+
+        assertThat(filter.resolvePrincipal(expiring.generateToken(user(1L, "alice", 0)))).isNull();
+    }
+
+    static JwtUtil newJwtUtil(String secret) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", secret);
+        ReflectionTestUtils.setField(util, "expiration", 3_600_000L);
+        util.init();
+        return util;
+    }
+
+    static User user(Long id, String username, int tokenVersion) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole("ADMIN");
+        user.setTokenVersion(tokenVersion);
+        return user;
+    }
+}
@@ -0,0 +1,87 @@
+package com.martiniano.crm.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void verifiesWithoutRehashWhenTheCostMatches() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), meterRegistry, 4, 1, 4, 1000);
+        String hash = new BCryptPasswordEncoder(4).encode("s3cret");
+
+        assertThat(hasher.verify("s3cret", hash)).isEqualTo(new PasswordHasher.Verification(true, null));
+        assertThat(hasher.verify("wrong", hash).matches()).isFalse();
+    }
+
+    @Test
+    void reencodesHashesStoredWithAnotherCost() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(5), meterRegistry, 5, 1, 4, 1000);
+
+        PasswordHasher.Verification upgraded = hasher.verify("s3cret", new BCryptPasswordEncoder(4).encode("s3cret"));
+        assertThat(upgraded.matches()).isTrue();
+        assertThat(upgraded.upgradedHash()).startsWith("$2a$05$");
+        assertThat(new BCryptPasswordEncoder(5).matches("s3cret", upgraded.upgradedHash())).isTrue();
+
+        // Lowering the cost migrates too, but a failed match never rehashes
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(6).encode("s3cret"))).isTrue();
+        assertThat(hasher.verify("wrong", new BCryptPasswordEncoder(4).encode("s3cret")).upgradedHash()).isNull();
+        assertThat(hasher.needsRehash("not-a-bcrypt-hash")).isFalse();
+        assertThat(meterRegistry.counter("auth.hashing.rehashed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsOnceTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+        };
+        hasher = new PasswordHasher(blocking, meterRegistry, 4, 1, 1, 2500);
+
+        CompletableFuture<PasswordHasher.Verification> running = CompletableFuture.supplyAsync(() -> hasher.verify("a", "x"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<PasswordHasher.Verification> queued = CompletableFuture.supplyAsync(() -> hasher.verify("b", "x"));
+        while (meterRegistry.get("auth.hashing.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> hasher.verify("c", "x"))
+                .isInstanceOfSatisfying(PasswordHasher.BusyException.class,
+                        e -> assertThat(e.getRetryAfter().toMillis()).isEqualTo(2500));
+        assertThat(meterRegistry.counter("auth.hashing.rejected").count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS).matches()).isFalse();
+        assertThat(queued.get(5, TimeUnit.SECONDS).matches()).isFalse();
+    }
+}
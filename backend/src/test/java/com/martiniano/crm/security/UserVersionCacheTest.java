@@ -0,0 +1,64 @@
+package com.martiniano.crm.security;
+
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.UserRepository;
+import com.martiniano.crm.service.EmailService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserVersionCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserVersionCache userVersionCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private EmailService emailService;
+
+    @Test
+    void roleChangeAndDisablingRevokeIssuedVersion() {
+        User user = new User();
+        user.setUsername("version-user");
+        user.setEmail("version-user@example.com");
+        user.setPasswordHash("hash");
+        Long id = userRepository.save(user).getId();
+        assertThat(userVersionCache.isCurrent(id, 0)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(id).orElseThrow().setRole("VIEWER"));
+        assertThat(userVersionCache.isCurrent(id, 0)).isFalse();
+        assertThat(userVersionCache.isCurrent(id, 1)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(id).orElseThrow().setEnabled(false));
+        assertThat(userVersionCache.isCurrent(id, 2)).isFalse();
+    }
+
+    @Test
+    void unrelatedUpdatesKeepTheVersion() {
+        User user = new User();
+        user.setUsername("profile-user");
+        user.setEmail("profile-user@example.com");
+        user.setPasswordHash("hash");
+        Long id = userRepository.save(user).getId();
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(id).orElseThrow().setFullName("Renamed"));
+
+        assertThat(userRepository.findById(id).orElseThrow().getTokenVersion()).isZero();
+        assertThat(userVersionCache.isCurrent(id, 0)).isTrue();
+    }
+}
@@ -0,0 +1,175 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.dto.ClientRequest;
+import com.martiniano.crm.entity.Activity;
+import com.martiniano.crm.entity.ActivityEntityType;
+import com.martiniano.crm.entity.ActivityPayload;
+import com.martiniano.crm.repository.ActivityOutboxRepository;
+import com.martiniano.crm.repository.ActivityRepository;
+import com.martiniano.crm.repository.ClientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.activity.async.enabled=true",
+        "app.activity.async.flush-interval=20"
+})
+@ActiveProfiles("test")
+class ActivityBatchWriterTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ActivityService activityService;
+
+    @Autowired
+    private ActivityBatchWriter activityBatchWriter;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private ActivityOutboxRepository activityOutboxRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+
+    @AfterEach
+    void tearDown() {
+        activityOutboxRepository.deleteAll();
+        activityRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    @Test
+    void committedActivitiesAreFlushedInBackground() throws InterruptedException {
+        ClientRequest request = new ClientRequest();
+        request.setName("Async Client");
+        request.setEmail("async@example.com");
+        Long clientId = clientService.createClient(request).getId();
+
+        assertThat(awaitActivityCount(1)).isEqualTo(1);
+        assertThat(activityService.getActivityTimeline(ActivityEntityType.CLIENT, clientId, 0, 10).getContent())
+                .extracting("activityType")
+                .containsExactly("CREATED");
+    }
+
+    @Test
+    void rolledBackActivitiesAreNeverWritten() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            activityService.logActivity(ActivityEntityType.LEAD, 1L, "CREATED", "Lead created", null, null);
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(200);
+        assertThat(activityOutboxRepository.count()).isZero();
+        assertThat(activityRepository.count()).isZero();
+    }
+
+    @Test
+    void committedActivitiesWaitInTheOutboxWhileTheWriterIsDown() throws InterruptedException {
+        activityBatchWriter.stop();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    activityService.logActivity(ActivityEntityType.LEAD, 1L, "CREATED", "Lead created", null, null));
+
+            assertThat(activityOutboxRepository.count()).isEqualTo(1);
+            assertThat(activityRepository.count()).isZero();
+
+            assertThat(activityBatchWriter.drain()).isEqualTo(1);
+            assertThat(activityOutboxRepository.count()).isZero();
+            assertThat(activityRepository.findAll()).extracting("activityType").containsExactly("CREATED");
+        } finally {
+            activityBatchWriter.start();
+        }
+    }
+
+    @Test
+    void batchedActivitiesTakeConsecutiveIdsFromThePooledSequence() throws InterruptedException {
+        activityBatchWriter.stop();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (long leadId = 1; leadId <= 3; leadId++) {
+                    activityService.logActivity(ActivityEntityType.LEAD, leadId, "CREATED", "Lead created", null, null);
+                }
+            });
+            activityBatchWriter.drain();
+
+            assertThat(activityRepository.findAll()).extracting(Activity::getId)
+                    .hasSize(3)
+                    .satisfies(ids -> assertThat(Collections.max(ids) - Collections.min(ids)).isEqualTo(2L));
+        } finally {
+            activityBatchWriter.start();
+        }
+    }
+
+    @Test
+    void payloadsKeepTheirVariantThroughTheBatchInsert() throws InterruptedException {
+        ActivityPayload stageChanged = new ActivityPayload.StageChanged("NEW", "WON");
+        ActivityPayload custom = new ActivityPayload.Custom(Map.of("minutes", 15, "newStage", "WON"));
+        activityBatchWriter.stop();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                activityService.logActivity(ActivityEntityType.LEAD, 1L, "STAGE_CHANGED", "Stage changed", stageChanged, null);
+                activityService.logActivity(ActivityEntityType.LEAD, 1L, "CALL", "Call", custom, null);
+            });
+            activityBatchWriter.drain();
+
+            assertThat(activityRepository.findAll()).extracting(Activity::getPayload)
+                    .containsExactlyInAnyOrder(stageChanged, custom);
+        } finally {
+            activityBatchWriter.start();
+        }
+    }
+
+    @Test
+    void liveUpdateWaitsUntilTheActivityHasItsId() throws InterruptedException {
+        LiveUpdateHubTest.RecordingEmitter stream = new LiveUpdateHubTest.RecordingEmitter();
+        liveUpdateHub.subscribe(LiveUpdateHub.activityTopic(ActivityEntityType.LEAD, 1L), stream);
+        activityBatchWriter.stop();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    activityService.logActivity(ActivityEntityType.LEAD, 1L, "NOTE", "Called the client", null, null));
+            Thread.sleep(200);
+            assertThat(stream.sent).isEmpty();
+
+            activityBatchWriter.drain();
+
+            Long id = activityRepository.findAll().get(0).getId();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (stream.sent.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(stream.sent).singleElement().asString().contains("\"id\":" + id + ",");
+        } finally {
+            stream.complete();
+            activityBatchWriter.start();
+        }
+    }
+
+    private long awaitActivityCount(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        long count = activityRepository.count();
+        while (count < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            count = activityRepository.count();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,51 @@
+package com.martiniano.crm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActivityPartitionMaintenanceTest {
+
+    private static final YearMonth OCTOBER = YearMonth.of(2026, 10);
+
+    @Test
+    void partitionNamesRoundTrip() {
+        assertThat(ActivityPartitionMaintenance.partitionName(YearMonth.of(2027, 1))).isEqualTo("activities_p202701");
+        assertThat(ActivityPartitionMaintenance.parsePartitionName("activities_p202701")).isEqualTo(YearMonth.of(2027, 1));
+        assertThat(ActivityPartitionMaintenance.parsePartitionName("activities_default")).isNull();
+        assertThat(ActivityPartitionMaintenance.parsePartitionName("activities_p2027010")).isNull();
+    }
+
+    @Test
+    void createsTheCurrentMonthAndTheNextOnes() {
+        assertThat(ActivityPartitionMaintenance.upcoming(YearMonth.of(2026, 11), 2))
+                .containsExactly(YearMonth.of(2026, 11), YearMonth.of(2026, 12), YearMonth.of(2027, 1));
+        assertThat(ActivityPartitionMaintenance.createPartitionSql(YearMonth.of(2026, 12)))
+                .isEqualTo("CREATE TABLE IF NOT EXISTS activities_p202612 PARTITION OF activities " +
+                           "FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+    }
+
+    @Test
+    void retiresOnlyMonthsEntirelyBeforeTheRetentionWindow() {
+        List<YearMonth> attached = List.of(
+                YearMonth.of(2026, 8), YearMonth.of(2026, 6), YearMonth.of(2026, 7),
+                YearMonth.of(2026, 5), OCTOBER, YearMonth.of(2027, 1));
+
+        // Three months kept besides the current one: July, August, September
+        assertThat(ActivityPartitionMaintenance.expired(attached, OCTOBER, 3))
+                .containsExactly(YearMonth.of(2026, 5), YearMonth.of(2026, 6));
+        assertThat(ActivityPartitionMaintenance.expired(attached, OCTOBER, 12)).isEmpty();
+    }
+
+    @Test
+    void rollupAddsToExistingDailyRows() {
+        String sql = ActivityPartitionMaintenance.rollupSql("activities_p202605");
+
+        assertThat(sql).contains("FROM activities_p202605 GROUP BY")
+                .contains("ON CONFLICT (entity_type, entity_id, activity_date, activity_type)")
+                .contains("activity_count = activity_daily_rollups.activity_count + EXCLUDED.activity_count");
+    }
+}
@@ -0,0 +1,95 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.dto.LoginRequest;
+import com.martiniano.crm.dto.LoginResponse;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.RefreshTokenRepository;
+import com.martiniano.crm.repository.UserRepository;
+import com.martiniano.crm.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "app.auth.bcrypt.strength=5")
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void logsInByEmailOrUsernameWithOneLookup() {
+        saveUser("alice", "alice@example.com", new BCryptPasswordEncoder(5).encode("s3cret"));
+
+        SqlStatementCounter.reset();
+        LoginResponse byEmail = authService.authenticate(login("alice@example.com", "s3cret"));
+        // The rest is the refresh token insert
+        assertThat(SqlStatementCounter.statements()).filteredOn(sql -> sql.contains(" from users ")).hasSize(1);
+        assertThat(byEmail.getUsername()).isEqualTo("alice");
+        assertThat(byEmail.getRefreshToken()).isNotBlank();
+
+        assertThat(authService.authenticate(login("alice", "s3cret")).getEmail()).isEqualTo("alice@example.com");
+        assertThatThrownBy(() -> authService.authenticate(login("alice", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> authService.authenticate(login("nobody@example.com", "s3cret")))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void emailMatchWinsOverAnotherUsersUsername() {
+        saveUser("bob@example.com", "internal@example.com", new BCryptPasswordEncoder(5).encode("internal"));
+        saveUser("bob", "bob@example.com", new BCryptPasswordEncoder(5).encode("bob"));
+
+        assertThat(authService.authenticate(login("bob@example.com", "bob")).getUsername()).isEqualTo("bob");
+    }
+
+    @Test
+    void rehashesWithTheConfiguredCostOnLogin() {
+        Long id = saveUser("carol", "carol@example.com", new BCryptPasswordEncoder(4).encode("s3cret")).getId();
+
+        authService.authenticate(login("carol@example.com", "s3cret"));
+
+        String stored = userRepository.findById(id).orElseThrow().getPasswordHash();
+        assertThat(stored).startsWith("$2a$05$");
+        assertThat(authService.authenticate(login("carol@example.com", "s3cret")).getUsername()).isEqualTo("carol");
+        assertThat(userRepository.findById(id).orElseThrow().getPasswordHash()).isEqualTo(stored);
+    }
+
+    private User saveUser(String username, String email, String passwordHash) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPasswordHash(passwordHash);
+        return userRepository.save(user);
+    }
+
+    private static LoginRequest login(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+}
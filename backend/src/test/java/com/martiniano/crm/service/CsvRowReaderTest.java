@@ -0,0 +1,41 @@
+package com.martiniano.crm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRowReaderTest {
+
+    @Test
+    void readsQuotedFieldsEscapedQuotesAndEmbeddedLineBreaks() throws IOException {
+        CsvRowReader reader = new CsvRowReader(new StringReader(
+                "name,company\r\n\"Ada\",\"Acme, Inc.\"\r\n\n\"Grace \"\"G\"\"\",\"Line one\nline two\"\nlast,"));
+
+        assertThat(reader.next()).containsExactly("name", "company");
+        assertThat(reader.next()).containsExactly("Ada", "Acme, Inc.");
+        assertThat(reader.next()).containsExactly("Grace \"G\"", "Line one\nline two");
+        assertThat(reader.next()).containsExactly("last", "");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void handlesBareCarriageReturns() throws IOException {
+        CsvRowReader reader = new CsvRowReader(new StringReader("a,b\rc,d"));
+
+        assertThat(reader.next()).isEqualTo(List.of("a", "b"));
+        assertThat(reader.next()).isEqualTo(List.of("c", "d"));
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void rejectsUnterminatedQuotes() {
+        CsvRowReader reader = new CsvRowReader(new StringReader("\"open,field"));
+
+        assertThatThrownBy(reader::next).isInstanceOf(CsvRowReader.MalformedRowException.class);
+    }
+}
@@ -0,0 +1,162 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.config.CacheConfig;
+import com.martiniano.crm.entity.Client;
+import com.martiniano.crm.entity.Lead;
+import com.martiniano.crm.entity.Project;
+import com.martiniano.crm.repository.ClientRepository;
+import com.martiniano.crm.repository.KpiCounterRepository;
+import com.martiniano.crm.repository.LeadRepository;
+import com.martiniano.crm.repository.ProjectRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private KpiCounterRepository kpiCounterRepository;
+
+    @Autowired
+    private KpiCounterService kpiCounterService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        saveLead("NEW", LocalDateTime.now());
+        saveLead("NEW", LocalDateTime.now().minusDays(60));
+        saveLead("CONVERTED", LocalDateTime.now());
+        saveLead("LOST", LocalDateTime.now().minusDays(45));
+
+        Client client = new Client();
+        client.setName("Acme");
+        client.setEmail("acme@example.com");
+        client = clientRepository.save(client);
+        saveProject(client.getId(), "DISCOVERY");
+        saveProject(client.getId(), "IN_PROGRESS");
+        saveProject(client.getId(), "COMPLETED");
+        kpiCounterService.reconcile();
+        cacheManager.getCache(CacheConfig.DASHBOARD_KPIS).clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        projectRepository.deleteAll();
+        clientRepository.deleteAll();
+        leadRepository.deleteAll();
+        kpiCounterRepository.deleteAll();
+    }
+
+    @Test
+    void dashboardKpisAreReadWithASingleQuery() {
+        dashboardService.getDashboardKPIs();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void dashboardKpisAreServedFromCacheUntilACounterChangeCommits() {
+        dashboardService.getDashboardKPIs();
+        dashboardService.getDashboardKPIs();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        transactionTemplate.executeWithoutResult(status -> kpiCounterService.projectCreated("TESTING"));
+        statistics.clear();
+
+        assertThat(dashboardService.getProjectCountsByStatus()).containsEntry("TESTING", 1L);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackCounterChangeDoesNotEvictCache() {
+        dashboardService.getDashboardKPIs();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            kpiCounterService.projectCreated("TESTING");
+            status.setRollbackOnly();
+        });
+
+        assertThat(cacheManager.getCache(CacheConfig.DASHBOARD_KPIS).get("getDashboardKPIs")).isNotNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dashboardKpisAreDerivedFromReconciledCounters() {
+        Map<String, Object> kpis = dashboardService.getDashboardKPIs();
+
+        Map<String, Long> leadCounts = (Map<String, Long>) kpis.get("leadCounts");
+        assertThat(leadCounts).containsEntry("NEW", 2L)
+                .containsEntry("CONVERTED", 1L)
+                .containsEntry("LOST", 1L)
+                .containsEntry("QUALIFIED", 0L);
+
+        Map<String, Object> metrics = (Map<String, Object>) kpis.get("conversionMetrics");
+        assertThat(metrics).containsEntry("totalLeads", 4L)
+                .containsEntry("convertedLeads", 1L)
+                .containsEntry("lostLeads", 1L)
+                .containsEntry("conversionRate", 25.0)
+                .containsEntry("recentLeads", 2L);
+
+        assertThat(kpis.get("activeProjects")).isEqualTo(2L);
+        Map<String, Long> projectCounts = (Map<String, Long>) kpis.get("projectCounts");
+        assertThat(projectCounts).containsEntry("COMPLETED", 1L).containsEntry("TESTING", 0L);
+    }
+
+    private void saveLead(String stage, LocalDateTime createdAt) {
+        Lead lead = new Lead();
+        lead.setName("Lead " + stage);
+        lead.setEmail(stage.toLowerCase() + "@example.com");
+        lead.setMessage("Interested in a new project");
+        lead.setStage(stage);
+        lead.setCreatedAt(createdAt);
+        leadRepository.save(lead);
+    }
+
+    private void saveProject(Long clientId, String status) {
+        Project project = new Project();
+        project.setClientId(clientId);
+        project.setName("Project " + status);
+        project.setStatus(status);
+        projectRepository.save(project);
+    }
+}
@@ -0,0 +1,58 @@
+package com.martiniano.crm.service;
+
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory {@link org.springframework.mail.javamail.JavaMailSender} for tests:
+ * records simple messages and batch sizes instead of opening an SMTP session,
+ * or fails every message on demand.
+ */
+public class FakeMailSender extends JavaMailSenderImpl {
+
+    private final List<SimpleMailMessage> sent = new CopyOnWriteArrayList<>();
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+    private volatile boolean failing;
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) {
+        batches.add(simpleMessages.length);
+        if (failing) {
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (SimpleMailMessage message : simpleMessages) {
+                failed.put(message, new IllegalStateException("SMTP server unavailable"));
+            }
+            throw new MailSendException("SMTP server unavailable", null, failed);
+        }
+        sent.addAll(List.of(simpleMessages));
+    }
+
+    @Override
+    public void send(SimpleMailMessage simpleMessage) {
+        send(new SimpleMailMessage[] {simpleMessage});
+    }
+
+    public List<Integer> getBatches() {
+        return batches;
+    }
+
+    public List<SimpleMailMessage> getSent() {
+        return sent;
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    public void reset() {
+        sent.clear();
+        batches.clear();
+        failing = false;
+    }
+}
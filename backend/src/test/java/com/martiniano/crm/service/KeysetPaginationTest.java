@@ -0,0 +1,160 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.dto.ActivitySummary;
+import com.martiniano.crm.dto.CursorPage;
+import com.martiniano.crm.dto.LeadSummary;
+import com.martiniano.crm.dto.PageCursor;
+import com.martiniano.crm.entity.Activity;
+import com.martiniano.crm.entity.ActivityEntityType;
+import com.martiniano.crm.entity.ActivityPayload;
+import com.martiniano.crm.entity.Lead;
+import com.martiniano.crm.repository.ActivityRepository;
+import com.martiniano.crm.repository.LeadRepository;
+import com.martiniano.crm.support.SqlStatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class KeysetPaginationTest {
+
+    @Autowired
+    private LeadService leadService;
+
+    @Autowired
+    private ActivityService activityService;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        activityRepository.deleteAll();
+        leadRepository.deleteAll();
+    }
+
+    @Test
+    void scrollsEveryLeadOnceNewestFirstWithoutCounting() {
+        // Ties on created_at must be broken by id, or rows would be skipped or repeated
+        LocalDateTime shared = LocalDateTime.of(2026, 1, 15, 10, 0);
+        for (int i = 0; i < 25; i++) {
+            saveLead("lead" + i, i < 10 ? shared : shared.minusMinutes(i));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Long> seen = new ArrayList<>();
+        List<LocalDateTime> createdAts = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<LeadSummary> page = leadService.scrollLeads(cursor, 10);
+            page.getItems().forEach(lead -> {
+                seen.add(lead.getId());
+                createdAts.add(lead.getCreatedAt());
+            });
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(25).doesNotHaveDuplicates();
+        assertThat(createdAts).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void scrollsActivityTimelineOfOneEntity() {
+        for (int i = 0; i < 5; i++) {
+            saveActivity(ActivityEntityType.LEAD, 1L, LocalDateTime.now().minusMinutes(i));
+        }
+        saveActivity(ActivityEntityType.LEAD, 2L, LocalDateTime.now());
+
+        CursorPage<ActivitySummary> first = activityService.scrollActivityTimeline(ActivityEntityType.LEAD, 1L, null, 3);
+        CursorPage<ActivitySummary> second =
+                activityService.scrollActivityTimeline(ActivityEntityType.LEAD, 1L, first.getNextCursor(), 3);
+
+        assertThat(first.getItems()).hasSize(3);
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.getItems()).hasSize(2).allMatch(activity -> activity.getEntityId() == 1L);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void timelineReadsOnlyIndexedColumnsAndDetailLoadsPayload() {
+        Activity saved = saveActivity(ActivityEntityType.CLIENT, 7L, LocalDateTime.now());
+        SqlStatementCounter.reset();
+
+        CursorPage<ActivitySummary> page = activityService.scrollActivityTimeline(ActivityEntityType.CLIENT, 7L, null, 10);
+
+        assertThat(page.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getId()).isEqualTo(saved.getId());
+            assertThat(item.getEntityType()).isEqualTo(ActivityEntityType.CLIENT);
+            assertThat(item.getActivityType()).isEqualTo("NOTE");
+        });
+        SqlStatementCounter.assertStatementCount(1);
+        assertThat(SqlStatementCounter.statements().get(0)).doesNotContain("payload", "description");
+
+        Activity detail = activityService.getActivity(saved.getId());
+        assertThat(detail.getDescription()).isEqualTo("Called");
+        assertThat(detail.getPayload()).isEqualTo(new ActivityPayload.StageChanged("NEW", "WON"));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> leadService.scrollLeads("not-a-cursor", 10))
+                .isInstanceOf(PageCursor.InvalidCursorException.class);
+    }
+
+    @Test
+    void cursorRoundTrips() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2026, 3, 1, 8, 30, 15, 123456000), 42L);
+
+        assertThat(PageCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    private void saveLead(String name, LocalDateTime createdAt) {
+        Lead lead = new Lead();
+        lead.setName(name);
+        lead.setEmail(name + "@example.com");
+        lead.setMessage("Hello");
+        lead.setSource("WEBSITE");
+        lead.setStage("NEW");
+        lead.setCreatedAt(createdAt);
+        leadRepository.save(lead);
+    }
+
+    private Activity saveActivity(ActivityEntityType entityType, Long entityId, LocalDateTime createdAt) {
+        Activity activity = new Activity();
+        activity.setEntityType(entityType);
+        activity.setEntityId(entityId);
+        activity.setActivityType("NOTE");
+        activity.setDescription("Called");
+        activity.setPayload(new ActivityPayload.StageChanged("NEW", "WON"));
+        activity.setCreatedAt(createdAt);
+        return activityRepository.save(activity);
+    }
+}
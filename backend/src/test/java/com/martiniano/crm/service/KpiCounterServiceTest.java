@@ -0,0 +1,130 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.dto.LeadCreateRequest;
+import com.martiniano.crm.entity.Lead;
+import com.martiniano.crm.repository.ActivityRepository;
+import com.martiniano.crm.repository.KpiCounterRepository;
+import com.martiniano.crm.repository.LeadRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class KpiCounterServiceTest {
+
+    @Autowired
+    private KpiCounterService kpiCounterService;
+
+    @Autowired
+    private LeadService leadService;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private KpiCounterRepository kpiCounterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        activityRepository.deleteAll();
+        leadRepository.deleteAll();
+        kpiCounterRepository.deleteAll();
+    }
+
+    @Test
+    void leadWritePathsKeepCountersCurrent() {
+        Lead first = leadService.createLead(leadRequest("first@example.com"));
+        Lead second = leadService.createLead(leadRequest("second@example.com"));
+        leadService.updateLeadStage(first.getId(), "QUALIFIED");
+        leadService.deleteLead(second.getId());
+
+        Map<String, Map<String, Long>> snapshot = kpiCounterService.snapshot();
+        assertThat(snapshot.get(KpiCounterService.LEAD_STAGE))
+                .containsEntry("NEW", 0L)
+                .containsEntry("QUALIFIED", 1L);
+        assertThat(snapshot.get(KpiCounterService.LEAD_CREATED_DAY))
+                .containsEntry(LocalDate.now().toString(), 1L);
+    }
+
+    @Test
+    void reconcileRepairsDrift() {
+        leadService.createLead(leadRequest("tracked@example.com"));
+        Lead untracked = new Lead();
+        untracked.setName("Imported Lead");
+        untracked.setEmail("untracked@example.com");
+        untracked.setMessage("Inserted without going through LeadService");
+        untracked.setStage("LOST");
+        leadRepository.save(untracked);
+
+        kpiCounterService.reconcile();
+
+        assertThat(kpiCounterService.snapshot().get(KpiCounterService.LEAD_STAGE))
+                .containsEntry("NEW", 1L)
+                .containsEntry("LOST", 1L);
+        assertThat(kpiCounterService.snapshot().get(KpiCounterService.LEAD_CREATED_DAY))
+                .containsEntry(LocalDate.now().toString(), 2L);
+    }
+
+    @Test
+    void concurrentFirstWritesOfACounterKeepEveryIncrement() throws Exception {
+        int writers = 8;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CyclicBarrier start = new CyclicBarrier(writers);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                    try {
+                        start.await();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    kpiCounterService.projectCreated("RACE");
+                })));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(kpiCounterService.snapshot().get(KpiCounterService.PROJECT_STATUS))
+                .containsEntry("RACE", (long) writers);
+    }
+
+    private LeadCreateRequest leadRequest(String email) {
+        LeadCreateRequest request = new LeadCreateRequest();
+        request.setName("Test Lead");
+        request.setEmail(email);
+        request.setMessage("We would like a quote for a website");
+        return request;
+    }
+}
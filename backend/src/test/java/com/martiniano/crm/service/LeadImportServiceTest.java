@@ -0,0 +1,147 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.dto.LeadImportResult;
+import com.martiniano.crm.entity.Lead;
+import com.martiniano.crm.repository.ActivityRepository;
+import com.martiniano.crm.repository.KpiCounterRepository;
+import com.martiniano.crm.repository.LeadRepository;
+import com.martiniano.crm.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "app.leads.import.chunk-size=2")
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class LeadImportServiceTest {
+
+    @Autowired
+    private LeadImportService leadImportService;
+
+    @Autowired
+    private KpiCounterService kpiCounterService;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private KpiCounterRepository kpiCounterRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        leadRepository.deleteAll();
+        activityRepository.deleteAll();
+        kpiCounterRepository.deleteAll();
+    }
+
+    @Test
+    void importsValidCsvRowsInBatchedChunksAndReportsInvalidOnes() throws IOException {
+        String csv = """
+                Name,Email,Company,Budget Range,Message
+                Ada,ada@example.com,"Acme, Inc.",10k,"Needs a new storefront"
+                Grace,grace@example.com,Navy,,"Multi-line
+                brief for the project"
+                Bad,not-an-email,,,Message long enough
+                Linus,linus@example.com,,,Short
+                Edsger,edsger@example.com,,,Wants a compiler rewrite
+                Barbara,barbara@example.com,,,Wants a language design
+                """;
+        SqlStatementCounter.reset();
+
+        LeadImportResult result = leadImportService.importLeads(new StringReader(csv), LeadImportService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(4);
+        assertThat(result.getFailed()).isEqualTo(2);
+        // Nobody can follow a lead's stream before the lead exists, so nothing to push or NOTIFY
+        assertThat(events.stream(ActivityLoggedEvent.class)).isEmpty();
+        assertThat(result.getErrors()).containsExactly(
+                new LeadImportResult.RowError(3, List.of("email: Invalid email format")),
+                new LeadImportResult.RowError(4, List.of("message: Message must be at least 10 characters")));
+
+        // Four valid rows at chunk-size 2: two batched INSERTs, not four
+        assertThat(SqlStatementCounter.statements())
+                .filteredOn(sql -> sql.toLowerCase().startsWith("insert into leads"))
+                .hasSize(2);
+
+        List<Lead> leads = leadRepository.findAll();
+        assertThat(leads).extracting(Lead::getName).containsExactlyInAnyOrder("Ada", "Grace", "Edsger", "Barbara");
+        assertThat(leads).filteredOn(lead -> lead.getName().equals("Ada"))
+                .singleElement()
+                .satisfies(lead -> {
+                    assertThat(lead.getCompany()).isEqualTo("Acme, Inc.");
+                    assertThat(lead.getBudgetRange()).isEqualTo("10k");
+                    assertThat(lead.getSource()).isEqualTo(LeadImportService.DEFAULT_SOURCE);
+                });
+        assertThat(activityRepository.count()).isEqualTo(4);
+        assertThat(kpiCounterService.snapshot().get(KpiCounterService.LEAD_STAGE)).containsEntry("NEW", 4L);
+        verify(emailService, never()).sendContactEmail(any(), any(), any());
+    }
+
+    @Test
+    void rejectsOnlyTheRowsTheDatabaseRefuses() throws IOException {
+        // Passes validation, but overflows the 100-character source column
+        String longSource = "x".repeat(101);
+        String ndjson = """
+                {"name":"Ada","email":"ada@example.com","message":"Needs a new storefront"}
+                {"name":"Long","email":"long@example.com","message":"Needs a new storefront","source":"%s"}
+                """.formatted(longSource);
+
+        LeadImportResult result = leadImportService.importLeads(new StringReader(ndjson), LeadImportService.Format.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getRow()).isEqualTo(2);
+                    assertThat(error.getMessages()).singleElement().asString().startsWith("Rejected by database");
+                });
+        assertThat(leadRepository.findAll()).extracting(Lead::getName).containsExactly("Ada");
+        assertThat(activityRepository.count()).isEqualTo(1);
+        assertThat(kpiCounterService.snapshot().get(KpiCounterService.LEAD_STAGE)).containsEntry("NEW", 1L);
+    }
+
+    @Test
+    void importsNdjsonAndReportsMalformedLines() throws IOException {
+        String ndjson = """
+                {"name":"Ada","email":"ada@example.com","message":"Needs a new storefront","source":"facebook"}
+
+                {"name":"Broken",
+                {"name":"Grace","email":"grace@example.com","message":"Needs a compiler"}
+                """;
+
+        LeadImportResult result = leadImportService.importLeads(new StringReader(ndjson), LeadImportService.Format.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getRow()).isEqualTo(3);
+                    assertThat(error.getMessages()).singleElement().asString().startsWith("Malformed JSON");
+                });
+        assertThat(leadRepository.findAll()).extracting(Lead::getSource)
+                .containsExactlyInAnyOrder("facebook", LeadImportService.DEFAULT_SOURCE);
+    }
+}
@@ -0,0 +1,102 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.dto.ClientSummary;
+import com.martiniano.crm.dto.LeadSummary;
+import com.martiniano.crm.entity.Client;
+import com.martiniano.crm.entity.Lead;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.ClientRepository;
+import com.martiniano.crm.repository.LeadRepository;
+import com.martiniano.crm.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ListProjectionTest {
+
+    @Autowired
+    private LeadService leadService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        leadRepository.deleteAll();
+        clientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void leadListSelectsSummaryColumnsWithoutLoadingEntities() {
+        User owner = new User();
+        owner.setUsername("owner");
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("hash");
+        Long ownerId = userRepository.save(owner).getId();
+        for (int i = 0; i < 3; i++) {
+            Lead lead = new Lead();
+            lead.setName("Lead " + i);
+            lead.setEmail("lead" + i + "@example.com");
+            lead.setMessage("A long message body that the table never shows");
+            lead.setAssignedTo(owner);
+            leadRepository.save(lead);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<LeadSummary> page = leadService.getAllLeads(PageRequest.of(0, 10, Sort.by("createdAt").descending()));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).allMatch(lead -> ownerId.equals(lead.getAssignedToId()));
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        // One projected SELECT; the count is skipped because the first page is already partial
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void clientListFiltersByStatus() {
+        saveClient("Acme", "ACTIVE");
+        saveClient("Globex", "INACTIVE");
+
+        Page<ClientSummary> page = clientService.getClientsByStatus("ACTIVE", PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).extracting(ClientSummary::getName).containsExactly("Acme");
+    }
+
+    private void saveClient(String name, String status) {
+        Client client = new Client();
+        client.setName(name);
+        client.setEmail(name.toLowerCase() + "@example.com");
+        client.setStatus(status);
+        clientRepository.save(client);
+    }
+}
@@ -0,0 +1,179 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.entity.Activity;
+import com.martiniano.crm.entity.ActivityEntityType;
+import com.martiniano.crm.repository.ActivityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.live.buffer-size=2",
+        "app.live.heartbeat=600000",
+        "app.live.kpi-interval=3600000"
+})
+@ActiveProfiles("test")
+class LiveUpdateHubTest {
+
+    @Autowired
+    private LiveUpdateHub liveUpdateHub;
+
+    @Autowired
+    private ActivityService activityService;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        emitters.forEach(SseEmitter::complete);
+        activityRepository.deleteAll();
+    }
+
+    @Test
+    void committedActivityReachesOnlyThatEntitysSubscribers() throws InterruptedException {
+        RecordingEmitter lead1 = subscribe(LiveUpdateHub.activityTopic(ActivityEntityType.LEAD, 1L), new RecordingEmitter());
+        RecordingEmitter lead2 = subscribe(LiveUpdateHub.activityTopic(ActivityEntityType.LEAD, 2L), new RecordingEmitter());
+
+        activityService.logActivity(ActivityEntityType.LEAD, 1L, "NOTE", "Called the client", null, null);
+
+        await(() -> !lead1.sent.isEmpty());
+        assertThat(lead1.sent).singleElement().satisfies(event -> {
+            assertThat(event).contains("event:" + LiveUpdateHub.ACTIVITY_EVENT);
+            assertThat(event).contains("Called the client");
+        });
+        Thread.sleep(100);
+        assertThat(lead2.sent).isEmpty();
+    }
+
+    @Test
+    void rolledBackActivityIsNeverPushed() throws InterruptedException {
+        RecordingEmitter lead = subscribe(LiveUpdateHub.activityTopic(ActivityEntityType.LEAD, 1L), new RecordingEmitter());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            activityService.logActivity(ActivityEntityType.LEAD, 1L, "NOTE", "Never happened", null, null);
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(200);
+        assertThat(lead.sent).isEmpty();
+    }
+
+    @Test
+    void slowSubscriberIsEvictedOnceItsBufferFills() throws InterruptedException {
+        BlockingEmitter slow = subscribe(LiveUpdateHub.activityTopic(ActivityEntityType.LEAD, 3L), new BlockingEmitter());
+        RecordingEmitter fast = subscribe(LiveUpdateHub.activityTopic(ActivityEntityType.LEAD, 3L), new RecordingEmitter());
+        int subscribersBefore = liveUpdateHub.subscriberCount();
+
+        // One message held by the blocked sender, two buffered, the fourth overflows.
+        // Waiting for the fast one after each message keeps its own small buffer from
+        // overflowing when its sender thread is slow to get scheduled.
+        for (int i = 0; i < 4; i++) {
+            int delivered = i + 1;
+            liveUpdateHub.onActivityLogged(new ActivityLoggedEvent(activity(3L, "Update " + i)));
+            if (i == 0) {
+                assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+            await(() -> fast.sent.size() == delivered);
+        }
+
+        await(() -> slow.completed);
+        assertThat(fast.completed).isFalse();
+        assertThat(liveUpdateHub.subscriberCount()).isEqualTo(subscribersBefore - 1);
+    }
+
+    @Test
+    void kpiChangesArePushedCoalesced() throws InterruptedException {
+        RecordingEmitter dashboard = subscribe(LiveUpdateHub.DASHBOARD_TOPIC, new RecordingEmitter());
+
+        liveUpdateHub.onKpiCountersChanged(new KpiCountersChangedEvent(KpiCounterService.LEAD_STAGE));
+        liveUpdateHub.onKpiCountersChanged(new KpiCountersChangedEvent(KpiCounterService.PROJECT_STATUS));
+        liveUpdateHub.pushKpis();
+        liveUpdateHub.pushKpis();
+
+        await(() -> !dashboard.sent.isEmpty());
+        Thread.sleep(100);
+        assertThat(dashboard.sent).singleElement().satisfies(event -> {
+            assertThat(event).contains("event:" + LiveUpdateHub.KPIS_EVENT);
+            assertThat(event).contains("leadCounts");
+        });
+    }
+
+    private <T extends SseEmitter> T subscribe(String topic, T emitter) {
+        emitters.add(emitter);
+        liveUpdateHub.subscribe(topic, emitter);
+        return emitter;
+    }
+
+    private static Activity activity(Long entityId, String description) {
+        Activity activity = new Activity();
+        activity.setEntityType(ActivityEntityType.LEAD);
+        activity.setEntityId(entityId);
+        activity.setActivityType("NOTE");
+        activity.setDescription(description);
+        return activity;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            String event = builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining());
+            if (!event.startsWith(":")) {
+                sent.add(event);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+
+    /** Stands in for a client that stopped reading: the first send never returns. */
+    static class BlockingEmitter extends RecordingEmitter {
+        final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch never = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.dto.LeadCreateRequest;
+import com.martiniano.crm.entity.Notification;
+import com.martiniano.crm.repository.ActivityRepository;
+import com.martiniano.crm.repository.KpiCounterRepository;
+import com.martiniano.crm.repository.LeadRepository;
+import com.martiniano.crm.repository.NotificationRepository;
+import com.martiniano.crm.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.notifications.max-attempts=3",
+        "app.notifications.initial-backoff=0"
+})
+@ActiveProfiles("test")
+class NotificationDispatcherTest {
+
+    @TestConfiguration
+    static class MailConfig {
+        @Bean
+        @Primary
+        FakeMailSender fakeMailSender() {
+            return new FakeMailSender();
+        }
+    }
+
+    @Autowired
+    private FakeMailSender mailSender;
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private LeadService leadService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private LeadRepository leadRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private KpiCounterRepository kpiCounterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        mailSender.reset();
+        notificationRepository.deleteAll();
+        activityRepository.deleteAll();
+        leadRepository.deleteAll();
+        kpiCounterRepository.deleteAll();
+    }
+
+    @Test
+    void leadNotificationIsDeliveredAfterCommit() throws InterruptedException {
+        LeadCreateRequest request = new LeadCreateRequest();
+        request.setName("Ana");
+        request.setEmail("ana@example.com");
+        request.setMessage("I need a landing page for my bakery");
+        leadService.createLead(request);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (mailSender.getSent().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(mailSender.getSent()).hasSize(1);
+        assertThat(mailSender.getSent().get(0).getReplyTo()).isEqualTo("ana@example.com");
+        assertThat(awaitStatus(NotificationDispatcher.SENT)).isTrue();
+    }
+
+    @Test
+    void rolledBackTransactionNeverSends() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendContactEmail("Bob", "bob@example.com", "Please call me back");
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(200);
+        assertThat(notificationRepository.count()).isZero();
+        assertThat(mailSender.getSent()).isEmpty();
+    }
+
+    @Test
+    void dueNotificationsShareOneSmtpSession() {
+        saveNotification("Lead 1");
+        saveNotification("Lead 2");
+        saveNotification("Lead 3");
+
+        assertThat(dispatcher.drain()).isEqualTo(3);
+
+        assertThat(mailSender.getBatches()).containsExactly(3);
+        assertThat(notificationRepository.findByStatus(NotificationDispatcher.SENT)).hasSize(3);
+    }
+
+    @Test
+    void batchIsLeasedAndLoadedInOneStatement() {
+        saveNotification("Lead 1");
+        saveNotification("Lead 2");
+        saveNotification("Lead 3");
+
+        SqlStatementCounter.reset();
+        List<Notification> claimed = dispatcher.claimBatch();
+
+        SqlStatementCounter.assertStatementCount(1);
+        assertThat(claimed).extracting(Notification::getSubject).containsExactlyInAnyOrder("Lead 1", "Lead 2", "Lead 3");
+        assertThat(claimed).allSatisfy(n -> assertThat(n.getNextAttemptAt()).isAfter(LocalDateTime.now()));
+        // Leased rows are not due again until the lease runs out
+        assertThat(dispatcher.claimBatch()).isEmpty();
+    }
+
+    @Test
+    void failingDeliveryBacksOffAndDeadLetters() {
+        mailSender.setFailing(true);
+        Long id = saveNotification("Subject").getId();
+
+        assertThat(dispatcher.drain()).isEqualTo(1);
+        assertThat(notificationRepository.findById(id).orElseThrow().getStatus()).isEqualTo(NotificationDispatcher.PENDING);
+        assertThat(dispatcher.drain()).isEqualTo(1);
+        assertThat(dispatcher.drain()).isEqualTo(1);
+
+        Notification dead = notificationRepository.findById(id).orElseThrow();
+        assertThat(dead.getStatus()).isEqualTo(NotificationDispatcher.DEAD);
+        assertThat(dead.getAttempts()).isEqualTo(3);
+        assertThat(dead.getLastError()).contains("SMTP server unavailable");
+        assertThat(dispatcher.drain()).isZero();
+    }
+
+    @Nested
+    @Import(MailConfig.class)
+    @TestPropertySource(properties = "app.notifications.digest.enabled=true")
+    class DigestMode {
+
+        @Autowired
+        private NotificationDispatcher digestDispatcher;
+
+        @Autowired
+        private FakeMailSender digestMailSender;
+
+        @AfterEach
+        void resetDigestMail() {
+            digestMailSender.reset();
+        }
+
+        @Test
+        void dueNotificationsAreFoldedIntoOneEmail() {
+            saveNotification("Lead 1");
+            saveNotification("Lead 2");
+
+            assertThat(digestDispatcher.drain()).isEqualTo(2);
+
+            assertThat(digestMailSender.getSent()).hasSize(1);
+            assertThat(digestMailSender.getSent().get(0).getText()).contains("Lead 1").contains("Lead 2");
+            assertThat(notificationRepository.findByStatus(NotificationDispatcher.SENT)).hasSize(2);
+        }
+
+        @Test
+        void remindersInAMixedBatchGoToTheirOwnRecipients() {
+            saveNotification("Lead 1");
+            saveReminder("Call Ana", "owner@example.com");
+            saveNotification("Lead 2");
+
+            assertThat(digestDispatcher.drain()).isEqualTo(3);
+
+            assertThat(digestMailSender.getSent()).hasSize(2);
+            assertThat(digestMailSender.getSent()).filteredOn(m -> m.getSubject().startsWith("Resumen"))
+                    .singleElement()
+                    .satisfies(digest -> assertThat(digest.getText()).contains("Lead 1", "Lead 2").doesNotContain("Call Ana"));
+            assertThat(digestMailSender.getSent()).filteredOn(m -> m.getSubject().equals("Call Ana"))
+                    .singleElement()
+                    .satisfies(reminder -> assertThat(reminder.getTo()).containsExactly("owner@example.com"));
+            assertThat(notificationRepository.findByStatus(NotificationDispatcher.SENT)).hasSize(3);
+        }
+
+        @Test
+        void remindersAreSentOnCommitWhileContactsWaitForTheDigest() throws InterruptedException {
+            Long contactId = saveNotification("Lead 1").getId();
+            transactionTemplate.executeWithoutResult(status ->
+                    digestDispatcher.dispatchAfterCommit(saveReminder("Call Ana", "owner@example.com")));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (digestMailSender.getSent().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertThat(digestMailSender.getSent()).extracting(SimpleMailMessage::getSubject).containsExactly("Call Ana");
+            assertThat(notificationRepository.findById(contactId).orElseThrow().getStatus())
+                    .isEqualTo(NotificationDispatcher.PENDING);
+        }
+    }
+
+    private Notification saveReminder(String subject, String recipient) {
+        Notification notification = new Notification();
+        notification.setType(EmailService.REMINDER_EMAIL);
+        notification.setRecipient(recipient);
+        notification.setSubject(subject);
+        notification.setBody("Body of " + subject);
+        return notificationRepository.save(notification);
+    }
+
+    private Notification saveNotification(String subject) {
+        Notification notification = new Notification();
+        notification.setType(EmailService.CONTACT_EMAIL);
+        notification.setRecipient("admin@example.com");
+        notification.setSubject(subject);
+        notification.setBody("Body of " + subject);
+        return notificationRepository.save(notification);
+    }
+
+    private boolean awaitStatus(String status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (notificationRepository.findByStatus(status).size() == 1) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,143 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.entity.Notification;
+import com.martiniano.crm.entity.Reminder;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.NotificationRepository;
+import com.martiniano.crm.repository.ReminderRepository;
+import com.martiniano.crm.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.reminders.batch-size=2")
+@ActiveProfiles("test")
+class ReminderDispatcherTest {
+
+    @TestConfiguration
+    static class MailConfig {
+        @Bean
+        @Primary
+        FakeMailSender fakeMailSender() {
+            return new FakeMailSender();
+        }
+    }
+
+    @Autowired
+    private ReminderDispatcher reminderDispatcher;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("owner");
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("hash");
+        owner = userRepository.save(owner);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reminderRepository.deleteAll();
+        notificationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void pollFiresEveryDueReminderAcrossBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        saveReminder("Call back", now.minusMinutes(30));
+        saveReminder("Send proposal", now.minusMinutes(5));
+        saveReminder("Renew contract", now.minusSeconds(1));
+        Long futureId = saveReminder("Next quarter review", now.plusDays(90)).getId();
+        double dispatchedBefore = meterRegistry.counter("reminders.dispatched").count();
+
+        reminderDispatcher.pollDue();
+
+        assertThat(reminderRepository.findAll())
+                .allSatisfy(reminder -> assertThat(reminder.getStatus())
+                        .isEqualTo(reminder.getId().equals(futureId) ? ReminderDispatcher.PENDING : ReminderDispatcher.DONE));
+        List<Notification> notifications = notificationRepository.findAll();
+        assertThat(notifications).hasSize(3)
+                .allSatisfy(notification -> {
+                    assertThat(notification.getType()).isEqualTo(EmailService.REMINDER_EMAIL);
+                    assertThat(notification.getRecipient()).isEqualTo("owner@example.com");
+                });
+        assertThat(meterRegistry.counter("reminders.dispatched").count() - dispatchedBefore).isEqualTo(3);
+        assertThat(meterRegistry.find("reminders.dispatch.lag").timer().count()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void concurrentClaimsSkipLockedReminders() throws Exception {
+        LocalDateTime dueAt = LocalDateTime.now().minusMinutes(1);
+        Long lockedId = saveReminder("Held by another instance", dueAt.minusMinutes(1)).getId();
+        Long freeId = saveReminder("Free", dueAt).getId();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherInstance = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            // Cut-off before the free reminder, so only the held row is read and locked
+            List<Reminder> claimed = reminderRepository.claimDue(dueAt.minusSeconds(30), 1);
+            assertThat(claimed).extracting(Reminder::getId).containsExactly(lockedId);
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        int claimed = reminderDispatcher.dispatchBatch();
+        release.countDown();
+        otherInstance.get(10, TimeUnit.SECONDS);
+
+        assertThat(claimed).isEqualTo(1);
+        assertThat(reminderRepository.findById(freeId)).get()
+                .extracting(Reminder::getStatus).isEqualTo(ReminderDispatcher.DONE);
+        assertThat(reminderRepository.findById(lockedId)).get()
+                .extracting(Reminder::getStatus).isEqualTo(ReminderDispatcher.PENDING);
+    }
+
+    private Reminder saveReminder(String title, LocalDateTime dueAt) {
+        Reminder reminder = new Reminder();
+        reminder.setEntityType("LEAD");
+        reminder.setEntityId(1L);
+        reminder.setTitle(title);
+        reminder.setDueAt(dueAt);
+        reminder.setCreatedBy(owner.getId());
+        return reminderRepository.save(reminder);
+    }
+}
@@ -0,0 +1,133 @@
+package com.martiniano.crm.service;
+
+import com.martiniano.crm.entity.Reminder;
+import com.martiniano.crm.entity.ReminderChangedEvent;
+import com.martiniano.crm.entity.User;
+import com.martiniano.crm.repository.NotificationRepository;
+import com.martiniano.crm.repository.ReminderRepository;
+import com.martiniano.crm.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.reminders.wheel.enabled=true",
+        "app.reminders.wheel.tick=20",
+        "app.reminders.wheel.initial-delay=3600000"
+})
+@ActiveProfiles("test")
+class ReminderSchedulerTest {
+
+    @TestConfiguration
+    static class MailConfig {
+        @Bean
+        @Primary
+        FakeMailSender fakeMailSender() {
+            return new FakeMailSender();
+        }
+    }
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("owner");
+        owner.setEmail("owner@example.com");
+        owner.setPasswordHash("hash");
+        owner = userRepository.save(owner);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reminderRepository.deleteAll();
+        notificationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void firesNewReminderWithinATickOfItsDueTime() throws InterruptedException {
+        LocalDateTime dueAt = LocalDateTime.now().plusNanos(Duration.ofMillis(500).toNanos());
+        Long id = saveReminder("Call back", dueAt).getId();
+        assertThat(reminderScheduler.isScheduled(id)).isTrue();
+
+        Reminder fired = awaitDone(id);
+
+        assertThat(fired.getCompletedAt()).isAfterOrEqualTo(dueAt)
+                .isBefore(dueAt.plusSeconds(1));
+        assertThat(notificationRepository.findAll()).singleElement()
+                .satisfies(n -> assertThat(n.getType()).isEqualTo(EmailService.REMINDER_EMAIL));
+        assertThat(reminderScheduler.isScheduled(id)).isFalse();
+    }
+
+    @Test
+    void refreshRecoversTheWindowAndSkipsFarReminders() {
+        LocalDateTime now = LocalDateTime.now();
+        Long nearId = saveReminder("Soon", now.plusMinutes(2)).getId();
+        Long farId = saveReminder("Next quarter", now.plusDays(90)).getId();
+        // Simulate a restart: nothing held in memory
+        reminderScheduler.onReminderChanged(new ReminderChangedEvent(nearId, null, null));
+        assertThat(reminderScheduler.isScheduled(nearId)).isFalse();
+
+        reminderScheduler.refresh();
+
+        assertThat(reminderScheduler.isScheduled(nearId)).isTrue();
+        assertThat(reminderScheduler.isScheduled(farId)).isFalse();
+    }
+
+    @Test
+    void completedOrDeletedRemindersLeaveTheWheel() {
+        Reminder reminder = saveReminder("Soon", LocalDateTime.now().plusMinutes(2));
+        assertThat(reminderScheduler.isScheduled(reminder.getId())).isTrue();
+
+        reminder.setStatus(ReminderDispatcher.DONE);
+        reminderRepository.save(reminder);
+
+        assertThat(reminderScheduler.isScheduled(reminder.getId())).isFalse();
+    }
+
+    private Reminder awaitDone(Long id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            Reminder reminder = reminderRepository.findById(id).orElseThrow();
+            if (ReminderDispatcher.DONE.equals(reminder.getStatus())) {
+                return reminder;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Reminder " + id + " was not fired");
+    }
+
+    private Reminder saveReminder(String title, LocalDateTime dueAt) {
+        Reminder reminder = new Reminder();
+        reminder.setEntityType("LEAD");
+        reminder.setEntityId(1L);
+        reminder.setTitle(title);
+        reminder.setDueAt(dueAt);
+        reminder.setCreatedBy(owner.getId());
+        return reminderRepository.save(reminder);
+    }
+}
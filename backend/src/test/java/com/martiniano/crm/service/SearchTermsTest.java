@@ -0,0 +1,26 @@
+package com.martiniano.crm.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTermsTest {
+
+    @Test
+    void containsPatternLowerCasesAndEscapesWildcards() {
+        assertThat(SearchTerms.containsPattern("  Acme ")).isEqualTo("%acme%");
+        assertThat(SearchTerms.containsPattern("100%_off\\")).isEqualTo("%100\\%\\_off\\\\%");
+    }
+
+    @Test
+    void byRankKeepsPagingAndDropsSort() {
+        Pageable ranked = SearchTerms.byRank(PageRequest.of(2, 25, Sort.by("createdAt")));
+
+        assertThat(ranked.getPageNumber()).isEqualTo(2);
+        assertThat(ranked.getPageSize()).isEqualTo(25);
+        assertThat(ranked.getSort().isUnsorted()).isTrue();
+    }
+}
@@ -0,0 +1,82 @@
+package com.martiniano.crm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    @Test
+    void firesEachEntryOnTheFirstTickAtOrAfterItsDeadline() {
+        TimingWheel wheel = new TimingWheel(10, 8, 3, 100, START);
+        wheel.schedule(1, START + 25);
+        wheel.schedule(2, START + 70);
+        // Beyond the first level, so it has to cascade down before firing
+        wheel.schedule(3, START + 1_234);
+        List<Long> fired = new ArrayList<>();
+
+        wheel.advance(START + 29, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(START + 30, fired::add);
+        assertThat(fired).containsExactly(1L);
+        wheel.advance(START + 1_239, fired::add);
+        assertThat(fired).containsExactly(1L, 2L);
+        wheel.advance(START + 1_240, fired::add);
+        assertThat(fired).containsExactly(1L, 2L, 3L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void neverFiresEarlyAcrossTheWholeRange() {
+        TimingWheel wheel = new TimingWheel(10, 8, 3, 10_000, START);
+        long horizon = wheel.horizon();
+        for (long id = 0; id < 5_000; id++) {
+            assertThat(wheel.schedule(id, START + 1 + (id * 7919) % (horizon - START)))
+                    .isEqualTo(TimingWheel.Outcome.SCHEDULED);
+        }
+        long[] firedAt = new long[5_000];
+        for (long now = START; wheel.size() > 0; now += 10) {
+            long tick = now;
+            wheel.advance(now, id -> firedAt[(int) id] = tick);
+        }
+
+        for (int id = 0; id < 5_000; id++) {
+            long deadline = START + 1 + (id * 7919L) % (horizon - START);
+            assertThat(firedAt[id]).isBetween(deadline, deadline + 9);
+        }
+    }
+
+    @Test
+    void rescheduleAndCancelReplaceTheExistingEntry() {
+        TimingWheel wheel = new TimingWheel(10, 8, 3, 100, START);
+        wheel.schedule(1, START + 500);
+        wheel.schedule(1, START + 50);
+        wheel.schedule(2, START + 50);
+        assertThat(wheel.cancel(2)).isTrue();
+        assertThat(wheel.cancel(2)).isFalse();
+        List<Long> fired = new ArrayList<>();
+
+        wheel.advance(START + 1_000, fired::add);
+
+        assertThat(fired).containsExactly(1L);
+    }
+
+    @Test
+    void rejectsPastDeadlinesAndEntriesItCannotHold() {
+        TimingWheel wheel = new TimingWheel(10, 8, 2, 2, START);
+
+        assertThat(wheel.schedule(1, START)).isEqualTo(TimingWheel.Outcome.EXPIRED);
+        assertThat(wheel.schedule(1, wheel.horizon() + 1)).isEqualTo(TimingWheel.Outcome.REJECTED);
+        assertThat(wheel.schedule(1, START + 10)).isEqualTo(TimingWheel.Outcome.SCHEDULED);
+        assertThat(wheel.schedule(2, START + 20)).isEqualTo(TimingWheel.Outcome.SCHEDULED);
+        assertThat(wheel.schedule(3, START + 30)).isEqualTo(TimingWheel.Outcome.REJECTED);
+        // Moving an entry already held does not need a free slot
+        assertThat(wheel.schedule(2, START + 40)).isEqualTo(TimingWheel.Outcome.SCHEDULED);
+        assertThat(wheel.size()).isEqualTo(2);
+    }
+}
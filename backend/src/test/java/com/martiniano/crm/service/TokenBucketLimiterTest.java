@@ -0,0 +1,76 @@
+package com.martiniano.crm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void grantsTheBurstThenOneTokenPerInterval() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(10), 100, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        }
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(Duration.ofSeconds(10));
+
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(Duration.ofSeconds(6));
+
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isPositive();
+    }
+
+    @Test
+    void refillsToCapacityButNoFurther() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(1), 100, now::get);
+        assertThat(limiter.tryAcquire("a")).isZero();
+
+        now.addAndGet(Duration.ofHours(1).toNanos());
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofMinutes(1), 100, now::get);
+
+        assertThat(limiter.tryAcquire("a@example.com")).isZero();
+        assertThat(limiter.tryAcquire("a@example.com")).isPositive();
+        assertThat(limiter.tryAcquire("b@example.com")).isZero();
+    }
+
+    @Test
+    void concurrentCallersNeverShareOneToken() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(50, Duration.ofHours(1), 100, now::get);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 500; i++) {
+                pool.submit(() -> {
+                    start.await();
+                    if (limiter.tryAcquire("shared").isZero()) {
+                        granted.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(granted.get()).isEqualTo(50);
+    }
+}
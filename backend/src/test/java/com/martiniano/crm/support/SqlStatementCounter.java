@@ -0,0 +1,40 @@
+package com.martiniano.crm.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Records the SQL Hibernate prepares on the calling thread. Registered as the
+ * session factory's statement inspector in the test profile, so MockMvc requests
+ * (which run on the test thread) can assert their exact statement count without
+ * picking up queries from schedulers or other background threads.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+
+    public static void assertStatementCount(int expected) {
+        List<String> statements = statements();
+        assertThat(statements)
+                .as("SQL statements:%n%s", String.join(System.lineSeparator(), statements))
+                .hasSize(expected);
+    }
+}
@@ -73,13 +73,51 @@ apiClient.interceptors.response.use(
       });
     }
     
-    if (error.response?.status === 401) {
-      localStorage.removeItem('auth_token');
-      localStorage.removeItem('auth_user');
-      window.location.href = '/admin/login';
+    const original = error.config;
+    const isAuthCall = original?.url?.startsWith('/api/v1/auth/');
+    if (error.response?.status === 401 && original && !original._retried && !isAuthCall
+        && localStorage.getItem('auth_refresh_token')) {
+      // Access token expired: trade the refresh token for a new pair and retry once
+      original._retried = true;
+      return refreshTokens().then((token) => {
+        original.headers.Authorization = `Bearer ${token}`;
+        return apiClient(original);
+      }, () => {
+        redirectToLogin();
+        return Promise.reject(error);
+      });
+    }
+
+    if (error.response?.status === 401 && !isAuthCall) {
+      redirectToLogin();
     }
     return Promise.reject(error);
   }
 );
 
+// Concurrent 401s share one refresh call: a refresh token is only valid once
+let pendingRefresh = null;
+
+function refreshTokens() {
+  if (!pendingRefresh) {
+    pendingRefresh = apiClient.post('/api/v1/auth/refresh', {
+      refreshToken: localStorage.getItem('auth_refresh_token'),
+    }).then((response) => {
+      localStorage.setItem('auth_token', response.data.token);
+      localStorage.setItem('auth_refresh_token', response.data.refreshToken);
+      return response.data.token;
+    }).finally(() => {
+      pendingRefresh = null;
+    });
+  }
+  return pendingRefresh;
+}
+
+function redirectToLogin() {
+  localStorage.removeItem('auth_token');
+  localStorage.removeItem('auth_refresh_token');
+  localStorage.removeItem('auth_user');
+  window.location.href = '/admin/login';
+}
+
 export default apiClient;
@@ -25,10 +25,13 @@ const AuthService = {
         });
       }
       
-      const { token, username, email: userEmail, role } = response.data;
+      const { token, refreshToken, username, email: userEmail, role } = response.data;
       
       if (token) {
         localStorage.setItem('auth_token', token);
+        if (refreshToken) {
+          localStorage.setItem('auth_refresh_token', refreshToken);
+        }
         localStorage.setItem('auth_user', JSON.stringify({
           username,
           email: userEmail,
@@ -81,7 +84,13 @@ const AuthService = {
   },
 
   logout() {
+    const refreshToken = localStorage.getItem('auth_refresh_token');
+    if (refreshToken) {
+      // Revoke server-side too; local logout does not wait for it
+      apiClient.post('/api/v1/auth/logout', { refreshToken }).catch(() => {});
+    }
     localStorage.removeItem('auth_token');
+    localStorage.removeItem('auth_refresh_token');
     localStorage.removeItem('auth_user');
   },
 